@@ -6,18 +6,18 @@ import com.sachintha.posapp.database.POSDatabase;
 
 /**
  * Application class for POS App
- * Initializes the database and provides global access
+ * Starts getting the app ready in the background and provides global access
  */
 public class POSApplication extends Application {
 
     private static POSApplication instance;
-    private POSDatabase database;
 
     @Override
     public void onCreate() {
         super.onCreate();
         instance = this;
-        database = POSDatabase.getInstance(this);
+        // Opening and seeding the database happens off the UI thread, see StartupPipeline
+        StartupPipeline.getInstance().start(this);
     }
 
     public static POSApplication getInstance() {
@@ -25,6 +25,6 @@ public class POSApplication extends Application {
     }
 
     public POSDatabase getDatabase() {
-        return database;
+        return POSDatabase.getInstance(this);
     }
 }
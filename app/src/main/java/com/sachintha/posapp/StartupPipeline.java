@@ -0,0 +1,141 @@
+package com.sachintha.posapp;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.sachintha.posapp.database.POSDatabase;
+import com.sachintha.posapp.database.dao.DailySalesSummaryDao;
+import com.sachintha.posapp.database.dao.ProductDao;
+import com.sachintha.posapp.repository.ProductCatalog;
+import com.sachintha.posapp.utils.AppExecutors;
+import com.sachintha.posapp.utils.DateUtils;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Gets the app ready in the background, one stage after another
+ * Started from the application so it also runs when Android restores a screen
+ * other than the splash. Nothing here touches the UI thread, screens wait for
+ * the stages they need with {@link #whenReady}. Each stage logs how long it took
+ * under the "Startup" tag, so a slower cold start shows up in logcat.
+ */
+public class StartupPipeline {
+
+    public enum Stage {
+        /** Room opened, including creating or migrating the schema */
+        DATABASE,
+        /** Default users, categories and sample products in place, needed to log in */
+        SEED,
+        /** Dashboard queries run once so their pages are cached */
+        WARM_UP,
+        /** Product catalog in memory for search and scanning */
+        CATALOG
+    }
+
+    private static final String TAG = "Startup";
+
+    private static StartupPipeline instance;
+
+    private final AppExecutors executors;
+    private final Map<Stage, List<Runnable>> waiting = new EnumMap<>(Stage.class); // guarded by this
+    private final Map<Stage, Long> finishedAt = new EnumMap<>(Stage.class); // guarded by this
+    private long startedAt;
+    private boolean started;
+
+    private StartupPipeline(AppExecutors executors) {
+        this.executors = executors;
+    }
+
+    public static synchronized StartupPipeline getInstance() {
+        if (instance == null) {
+            instance = new StartupPipeline(AppExecutors.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Queue the stages, once per process
+     */
+    public synchronized void start(Context context) {
+        if (started) {
+            return;
+        }
+        started = true;
+        startedAt = SystemClock.elapsedRealtime();
+        Context appContext = context.getApplicationContext();
+
+        // The writer thread runs these in order, ahead of any write a screen queues later
+        run(Stage.DATABASE, executors.writes(), () ->
+                POSDatabase.getInstance(appContext).getOpenHelper().getWritableDatabase());
+        run(Stage.SEED, executors.writes(), () -> {
+            POSDatabase database = POSDatabase.getInstance(appContext);
+            database.seedDefaultData();
+            // Queued from here so the reads see the seeded rows
+            run(Stage.WARM_UP, executors.reads(), () -> warmUp(database));
+        });
+        run(Stage.CATALOG, executors.writes(), () -> ProductCatalog.getInstance(appContext).preload());
+    }
+
+    /**
+     * Run the action on the UI thread once the stage is done, straight away if it already is
+     * A stage that fails still counts as done, its error is logged and surfaces again on use
+     */
+    public void whenReady(Stage stage, Runnable action) {
+        synchronized (this) {
+            if (!finishedAt.containsKey(stage)) {
+                waiting.computeIfAbsent(stage, key -> new ArrayList<>()).add(action);
+                return;
+            }
+        }
+        executors.mainThread().execute(action);
+    }
+
+    public synchronized boolean isReady(Stage stage) {
+        return finishedAt.containsKey(stage);
+    }
+
+    private void run(Stage stage, Executor executor, Runnable work) {
+        executor.execute(() -> {
+            long begin = SystemClock.elapsedRealtime();
+            try {
+                work.run();
+            } catch (RuntimeException e) {
+                Log.e(TAG, stage + " failed", e);
+            }
+            finish(stage, begin);
+        });
+    }
+
+    private void finish(Stage stage, long begin) {
+        long now = SystemClock.elapsedRealtime();
+        List<Runnable> actions;
+        synchronized (this) {
+            finishedAt.put(stage, now);
+            actions = waiting.remove(stage);
+        }
+        Log.i(TAG, String.format(Locale.US, "%s took %d ms, ready %d ms after start",
+                stage, now - begin, now - startedAt));
+        if (actions != null) {
+            for (Runnable action : actions) {
+                executors.mainThread().execute(action);
+            }
+        }
+    }
+
+    private static void warmUp(POSDatabase database) {
+        // What the dashboard asks for first after logging in
+        int today = DateUtils.todayKey();
+        DailySalesSummaryDao summaryDao = database.dailySalesSummaryDao();
+        summaryDao.getTotalForDay(today);
+        summaryDao.getSalesCountForDay(today);
+        ProductDao productDao = database.productDao();
+        productDao.getActiveProductCount();
+        productDao.getLowStockCount();
+    }
+}
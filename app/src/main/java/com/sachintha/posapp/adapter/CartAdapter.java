@@ -7,6 +7,8 @@ import android.widget.ImageButton;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.sachintha.posapp.R;
@@ -15,13 +17,36 @@ import com.sachintha.posapp.model.CartItem;
 import com.sachintha.posapp.utils.FormatUtils;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Adapter for displaying cart items
+ * Expects snapshots from {@link Cart#getItems()}, a quantity change only
+ * rebinds the quantity and total of that row
  */
-public class CartAdapter extends RecyclerView.Adapter<CartAdapter.ViewHolder> {
+public class CartAdapter extends ListAdapter<CartItem, CartAdapter.ViewHolder> {
+
+    private static final Object PAYLOAD_QUANTITY = new Object();
+
+    private static final DiffUtil.ItemCallback<CartItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<CartItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull CartItem oldItem, @NonNull CartItem newItem) {
+            return oldItem.getProductId() == newItem.getProductId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull CartItem oldItem, @NonNull CartItem newItem) {
+            return sameDetails(oldItem, newItem)
+                    && oldItem.getQuantity() == newItem.getQuantity()
+                    && oldItem.getDiscount() == newItem.getDiscount();
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull CartItem oldItem, @NonNull CartItem newItem) {
+            return sameDetails(oldItem, newItem) ? PAYLOAD_QUANTITY : null;
+        }
+    };
 
-    private List<CartItem> items;
     private OnCartItemActionListener listener;
 
     public interface OnCartItemActionListener {
@@ -29,9 +54,10 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.ViewHolder> {
         void onItemRemoved(CartItem item);
     }
 
-    public CartAdapter(List<CartItem> items, OnCartItemActionListener listener) {
-        this.items = items;
+    public CartAdapter(OnCartItemActionListener listener) {
+        super(DIFF_CALLBACK);
         this.listener = listener;
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -39,53 +65,84 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.ViewHolder> {
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_cart, parent, false);
-        return new ViewHolder(view);
-    }
-
-    @Override
-    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        CartItem item = items.get(position);
+        ViewHolder holder = new ViewHolder(view);
         Cart cart = Cart.getInstance();
 
-        holder.tvName.setText(item.getProductName());
-        holder.tvPrice.setText(FormatUtils.formatCurrency(item.getUnitPrice()));
-        holder.tvQuantity.setText(String.valueOf(item.getQuantity()));
-        holder.tvTotal.setText(FormatUtils.formatCurrency(item.getTotal()));
-
         holder.btnMinus.setOnClickListener(v -> {
-            cart.decrementQuantity(item.getProductId());
-            if (listener != null) {
-                listener.onQuantityChanged(item);
+            CartItem item = itemAt(holder);
+            if (item != null) {
+                cart.decrementQuantity(item.getProductId());
+                if (listener != null) {
+                    listener.onQuantityChanged(item);
+                }
             }
         });
 
         holder.btnPlus.setOnClickListener(v -> {
-            cart.incrementQuantity(item.getProductId());
-            if (listener != null) {
-                listener.onQuantityChanged(item);
+            CartItem item = itemAt(holder);
+            if (item != null) {
+                cart.incrementQuantity(item.getProductId());
+                if (listener != null) {
+                    listener.onQuantityChanged(item);
+                }
             }
         });
 
         holder.btnRemove.setOnClickListener(v -> {
-            if (listener != null) {
+            CartItem item = itemAt(holder);
+            if (item != null && listener != null) {
                 listener.onItemRemoved(item);
             }
         });
+        return holder;
     }
 
     @Override
-    public int getItemCount() {
-        return items.size();
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        CartItem item = getItem(position);
+
+        holder.tvName.setText(item.getProductName());
+        holder.tvPrice.setText(holder.priceBuffer, 0,
+                FormatUtils.formatCurrency(item.getUnitPrice(), holder.priceBuffer));
+        bindQuantity(holder, item);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            bindQuantity(holder, getItem(position));
+        }
+    }
+
+    private void bindQuantity(ViewHolder holder, CartItem item) {
+        holder.tvQuantity.setText(String.valueOf(item.getQuantity()));
+        holder.tvTotal.setText(holder.totalBuffer, 0,
+                FormatUtils.formatCurrency(item.getTotal(), holder.totalBuffer));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getProductId();
+    }
+
+    private CartItem itemAt(ViewHolder holder) {
+        int position = holder.getBindingAdapterPosition();
+        return position != RecyclerView.NO_POSITION ? getItem(position) : null;
     }
 
-    public void updateItems(List<CartItem> newItems) {
-        this.items = newItems;
-        notifyDataSetChanged();
+    private static boolean sameDetails(CartItem oldItem, CartItem newItem) {
+        return Objects.equals(oldItem.getProductName(), newItem.getProductName())
+                && oldItem.getUnitPrice() == newItem.getUnitPrice();
     }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
         TextView tvName, tvPrice, tvQuantity, tvTotal;
         ImageButton btnMinus, btnPlus, btnRemove;
+        // Reused on every bind, TextView keeps showing them until the next setText
+        final char[] priceBuffer = new char[FormatUtils.AMOUNT_BUFFER_SIZE];
+        final char[] totalBuffer = new char[FormatUtils.AMOUNT_BUFFER_SIZE];
 
         ViewHolder(View itemView) {
             super(itemView);
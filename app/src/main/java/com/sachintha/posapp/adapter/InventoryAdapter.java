@@ -11,29 +11,54 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.cardview.widget.CardView;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.sachintha.posapp.R;
-import com.sachintha.posapp.database.entity.Product;
+import com.sachintha.posapp.database.projection.InventoryRow;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Adapter for inventory list with stock update functionality
+ * Products arrive a page at a time and are diffed in the background,
+ * a stock change only rebinds the stock views
  */
-public class InventoryAdapter extends RecyclerView.Adapter<InventoryAdapter.ViewHolder> {
+public class InventoryAdapter extends PagingDataAdapter<InventoryRow, InventoryAdapter.ViewHolder> {
+
+    private static final Object PAYLOAD_STOCK = new Object();
+
+    private static final DiffUtil.ItemCallback<InventoryRow> DIFF_CALLBACK = new DiffUtil.ItemCallback<InventoryRow>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull InventoryRow oldItem, @NonNull InventoryRow newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull InventoryRow oldItem, @NonNull InventoryRow newItem) {
+            return sameDetails(oldItem, newItem)
+                    && oldItem.getStock() == newItem.getStock()
+                    && oldItem.getMinStock() == newItem.getMinStock();
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull InventoryRow oldItem, @NonNull InventoryRow newItem) {
+            return sameDetails(oldItem, newItem) ? PAYLOAD_STOCK : null;
+        }
+    };
 
     private Context context;
-    private List<Product> products;
     private OnInventoryActionListener listener;
 
     public interface OnInventoryActionListener {
-        void onUpdateStock(Product product, int newStock);
+        void onUpdateStock(InventoryRow product, int newStock);
     }
 
-    public InventoryAdapter(Context context, List<Product> products, OnInventoryActionListener listener) {
+    public InventoryAdapter(Context context, OnInventoryActionListener listener) {
+        super(DIFF_CALLBACK);
         this.context = context;
-        this.products = products;
         this.listener = listener;
     }
 
@@ -41,15 +66,40 @@ public class InventoryAdapter extends RecyclerView.Adapter<InventoryAdapter.View
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(context).inflate(R.layout.item_inventory, parent, false);
-        return new ViewHolder(view);
+        ViewHolder holder = new ViewHolder(view);
+        holder.btnUpdateStock.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            InventoryRow product = position != RecyclerView.NO_POSITION ? getItem(position) : null;
+            if (product != null) {
+                showUpdateStockDialog(product);
+            }
+        });
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Product product = products.get(position);
+        InventoryRow product = getItem(position);
+        if (product == null) {
+            return;
+        }
 
         holder.tvName.setText(product.getName());
         holder.tvBarcode.setText(product.getBarcode() != null ? product.getBarcode() : "No barcode");
+        bindStock(holder, product);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        InventoryRow product = getItem(position);
+        if (payloads.isEmpty() || product == null) {
+            onBindViewHolder(holder, position);
+        } else {
+            bindStock(holder, product);
+        }
+    }
+
+    private void bindStock(ViewHolder holder, InventoryRow product) {
         holder.tvStock.setText(String.valueOf(product.getStock()));
         holder.tvMinStock.setText("Min: " + product.getMinStock());
 
@@ -67,11 +117,9 @@ public class InventoryAdapter extends RecyclerView.Adapter<InventoryAdapter.View
             holder.tvStatus.setTextColor(context.getResources().getColor(R.color.success, null));
             holder.cardView.setCardBackgroundColor(context.getResources().getColor(R.color.card_background, null));
         }
-
-        holder.btnUpdateStock.setOnClickListener(v -> showUpdateStockDialog(product));
     }
 
-    private void showUpdateStockDialog(Product product) {
+    private void showUpdateStockDialog(InventoryRow product) {
         View dialogView = LayoutInflater.from(context).inflate(R.layout.dialog_update_stock, null);
         EditText etStock = dialogView.findViewById(R.id.et_stock);
         etStock.setText(String.valueOf(product.getStock()));
@@ -93,14 +141,9 @@ public class InventoryAdapter extends RecyclerView.Adapter<InventoryAdapter.View
             .show();
     }
 
-    @Override
-    public int getItemCount() {
-        return products.size();
-    }
-
-    public void updateProducts(List<Product> newProducts) {
-        this.products = newProducts;
-        notifyDataSetChanged();
+    private static boolean sameDetails(InventoryRow oldItem, InventoryRow newItem) {
+        return Objects.equals(oldItem.getName(), newItem.getName())
+                && Objects.equals(oldItem.getBarcode(), newItem.getBarcode());
     }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
@@ -8,30 +8,53 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.sachintha.posapp.R;
-import com.sachintha.posapp.database.entity.Product;
+import com.sachintha.posapp.database.projection.ProductTile;
 import com.sachintha.posapp.utils.FormatUtils;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Adapter for displaying products in a grid layout
+ * Products arrive a page at a time and are diffed in the background,
+ * a stock change only rebinds the stock label
  */
-public class ProductGridAdapter extends RecyclerView.Adapter<ProductGridAdapter.ViewHolder> {
+public class ProductGridAdapter extends PagingDataAdapter<ProductTile, ProductGridAdapter.ViewHolder> {
+
+    private static final Object PAYLOAD_STOCK = new Object();
+
+    private static final DiffUtil.ItemCallback<ProductTile> DIFF_CALLBACK = new DiffUtil.ItemCallback<ProductTile>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ProductTile oldItem, @NonNull ProductTile newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ProductTile oldItem, @NonNull ProductTile newItem) {
+            return sameDetails(oldItem, newItem) && sameStock(oldItem, newItem);
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull ProductTile oldItem, @NonNull ProductTile newItem) {
+            return sameDetails(oldItem, newItem) ? PAYLOAD_STOCK : null;
+        }
+    };
 
     private Context context;
-    private List<Product> products;
     private OnProductClickListener listener;
 
     public interface OnProductClickListener {
-        void onProductClick(Product product);
+        void onProductClick(ProductTile product);
     }
 
-    public ProductGridAdapter(Context context, List<Product> products, OnProductClickListener listener) {
+    public ProductGridAdapter(Context context, OnProductClickListener listener) {
+        super(DIFF_CALLBACK);
         this.context = context;
-        this.products = products;
         this.listener = listener;
     }
 
@@ -39,15 +62,43 @@ public class ProductGridAdapter extends RecyclerView.Adapter<ProductGridAdapter.
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(context).inflate(R.layout.item_product_grid, parent, false);
-        return new ViewHolder(view);
+        ViewHolder holder = new ViewHolder(view);
+
+        // Look the product up on click so a partial rebind never leaves a stale one behind
+        holder.cardView.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            ProductTile product = position != RecyclerView.NO_POSITION ? getItem(position) : null;
+            if (product != null && listener != null) {
+                listener.onProductClick(product);
+            }
+        });
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Product product = products.get(position);
-        
+        ProductTile product = getItem(position);
+        if (product == null) {
+            return;
+        }
+
         holder.tvName.setText(product.getName());
-        holder.tvPrice.setText(FormatUtils.formatCurrency(product.getPrice()));
+        holder.tvPrice.setText(holder.priceBuffer, 0,
+                FormatUtils.formatCurrency(product.getPrice(), holder.priceBuffer));
+        bindStock(holder, product);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        ProductTile product = getItem(position);
+        if (payloads.isEmpty() || product == null) {
+            onBindViewHolder(holder, position);
+        } else {
+            bindStock(holder, product);
+        }
+    }
+
+    private void bindStock(ViewHolder holder, ProductTile product) {
         holder.tvStock.setText("Stock: " + product.getStock());
 
         // Set card appearance based on stock
@@ -61,27 +112,23 @@ public class ProductGridAdapter extends RecyclerView.Adapter<ProductGridAdapter.
             holder.cardView.setAlpha(1f);
             holder.tvStock.setTextColor(context.getResources().getColor(R.color.text_secondary, null));
         }
-
-        holder.cardView.setOnClickListener(v -> {
-            if (listener != null) {
-                listener.onProductClick(product);
-            }
-        });
     }
 
-    @Override
-    public int getItemCount() {
-        return products.size();
+    private static boolean sameDetails(ProductTile oldItem, ProductTile newItem) {
+        return Objects.equals(oldItem.getName(), newItem.getName())
+                && oldItem.getPrice() == newItem.getPrice();
     }
 
-    public void updateProducts(List<Product> newProducts) {
-        this.products = newProducts;
-        notifyDataSetChanged();
+    private static boolean sameStock(ProductTile oldItem, ProductTile newItem) {
+        return oldItem.getStock() == newItem.getStock()
+                && oldItem.getMinStock() == newItem.getMinStock();
     }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
         CardView cardView;
         TextView tvName, tvPrice, tvStock;
+        // Reused on every bind, TextView keeps showing it until the next setText
+        final char[] priceBuffer = new char[FormatUtils.AMOUNT_BUFFER_SIZE];
 
         ViewHolder(View itemView) {
             super(itemView);
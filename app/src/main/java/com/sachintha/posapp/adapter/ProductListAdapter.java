@@ -9,6 +9,8 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.sachintha.posapp.R;
@@ -16,15 +18,32 @@ import com.sachintha.posapp.database.entity.Product;
 import com.sachintha.posapp.utils.FormatUtils;
 import com.sachintha.posapp.utils.SessionManager;
 
-import java.util.List;
+import java.util.Objects;
 
 /**
  * Adapter for displaying products in a list layout
+ * Products arrive a page at a time from the paged product list
  */
-public class ProductListAdapter extends RecyclerView.Adapter<ProductListAdapter.ViewHolder> {
+public class ProductListAdapter extends PagingDataAdapter<Product, ProductListAdapter.ViewHolder> {
+
+    private static final DiffUtil.ItemCallback<Product> DIFF_CALLBACK = new DiffUtil.ItemCallback<Product>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && Objects.equals(oldItem.getBarcode(), newItem.getBarcode())
+                    && oldItem.getPrice() == newItem.getPrice()
+                    && oldItem.getStock() == newItem.getStock()
+                    && oldItem.getMinStock() == newItem.getMinStock()
+                    && oldItem.isActive() == newItem.isActive();
+        }
+    };
 
     private Context context;
-    private List<Product> products;
     private OnProductActionListener listener;
     private boolean isAdmin;
 
@@ -33,9 +52,9 @@ public class ProductListAdapter extends RecyclerView.Adapter<ProductListAdapter.
         void onDeleteProduct(Product product);
     }
 
-    public ProductListAdapter(Context context, List<Product> products, OnProductActionListener listener) {
+    public ProductListAdapter(Context context, OnProductActionListener listener) {
+        super(DIFF_CALLBACK);
         this.context = context;
-        this.products = products;
         this.listener = listener;
         this.isAdmin = SessionManager.getInstance(context).isAdmin();
     }
@@ -44,12 +63,28 @@ public class ProductListAdapter extends RecyclerView.Adapter<ProductListAdapter.
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(context).inflate(R.layout.item_product_list, parent, false);
-        return new ViewHolder(view);
+        ViewHolder holder = new ViewHolder(view);
+        holder.btnEdit.setOnClickListener(v -> {
+            Product product = productAt(holder);
+            if (product != null && listener != null) {
+                listener.onEditProduct(product);
+            }
+        });
+        holder.btnDelete.setOnClickListener(v -> {
+            Product product = productAt(holder);
+            if (product != null && listener != null) {
+                listener.onDeleteProduct(product);
+            }
+        });
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Product product = products.get(position);
+        Product product = getItem(position);
+        if (product == null) {
+            return;
+        }
 
         holder.tvName.setText(product.getName());
         holder.tvBarcode.setText(product.getBarcode() != null ? product.getBarcode() : "No barcode");
@@ -74,35 +109,13 @@ public class ProductListAdapter extends RecyclerView.Adapter<ProductListAdapter.
         }
 
         // Show/hide admin actions
-        if (isAdmin) {
-            holder.btnEdit.setVisibility(View.VISIBLE);
-            holder.btnDelete.setVisibility(View.VISIBLE);
-
-            holder.btnEdit.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onEditProduct(product);
-                }
-            });
-
-            holder.btnDelete.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onDeleteProduct(product);
-                }
-            });
-        } else {
-            holder.btnEdit.setVisibility(View.GONE);
-            holder.btnDelete.setVisibility(View.GONE);
-        }
-    }
-
-    @Override
-    public int getItemCount() {
-        return products.size();
+        holder.btnEdit.setVisibility(isAdmin ? View.VISIBLE : View.GONE);
+        holder.btnDelete.setVisibility(isAdmin ? View.VISIBLE : View.GONE);
     }
 
-    public void updateProducts(List<Product> newProducts) {
-        this.products = newProducts;
-        notifyDataSetChanged();
+    private Product productAt(ViewHolder holder) {
+        int position = holder.getBindingAdapterPosition();
+        return position != RecyclerView.NO_POSITION ? getItem(position) : null;
     }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
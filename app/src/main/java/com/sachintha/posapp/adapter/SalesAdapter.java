@@ -8,30 +8,47 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.sachintha.posapp.R;
-import com.sachintha.posapp.database.entity.Sale;
+import com.sachintha.posapp.database.projection.SaleSummary;
 import com.sachintha.posapp.utils.FormatUtils;
 
-import java.util.List;
+import java.util.Objects;
 
 /**
  * Adapter for displaying sales history
+ * Sales arrive a page at a time from the paged history
  */
-public class SalesAdapter extends RecyclerView.Adapter<SalesAdapter.ViewHolder> {
+public class SalesAdapter extends PagingDataAdapter<SaleSummary, SalesAdapter.ViewHolder> {
+
+    private static final DiffUtil.ItemCallback<SaleSummary> DIFF_CALLBACK = new DiffUtil.ItemCallback<SaleSummary>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull SaleSummary oldItem, @NonNull SaleSummary newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull SaleSummary oldItem, @NonNull SaleSummary newItem) {
+            return oldItem.getTotal() == newItem.getTotal()
+                    && Objects.equals(oldItem.getStatus(), newItem.getStatus())
+                    && Objects.equals(oldItem.getPaymentMethod(), newItem.getPaymentMethod())
+                    && Objects.equals(oldItem.getCashierName(), newItem.getCashierName());
+        }
+    };
 
     private Context context;
-    private List<Sale> sales;
     private OnSaleClickListener listener;
 
     public interface OnSaleClickListener {
-        void onSaleClick(Sale sale);
+        void onSaleClick(SaleSummary sale);
     }
 
-    public SalesAdapter(Context context, List<Sale> sales, OnSaleClickListener listener) {
+    public SalesAdapter(Context context, OnSaleClickListener listener) {
+        super(DIFF_CALLBACK);
         this.context = context;
-        this.sales = sales;
         this.listener = listener;
     }
 
@@ -39,12 +56,23 @@ public class SalesAdapter extends RecyclerView.Adapter<SalesAdapter.ViewHolder>
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(context).inflate(R.layout.item_sale, parent, false);
-        return new ViewHolder(view);
+        ViewHolder holder = new ViewHolder(view);
+        holder.cardView.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            SaleSummary sale = position != RecyclerView.NO_POSITION ? getItem(position) : null;
+            if (sale != null && listener != null) {
+                listener.onSaleClick(sale);
+            }
+        });
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Sale sale = sales.get(position);
+        SaleSummary sale = getItem(position);
+        if (sale == null) {
+            return;
+        }
 
         holder.tvInvoice.setText(sale.getInvoiceNumber());
         holder.tvDate.setText(FormatUtils.formatDateTime(sale.getSaleDate()));
@@ -61,17 +89,6 @@ public class SalesAdapter extends RecyclerView.Adapter<SalesAdapter.ViewHolder>
         } else {
             holder.tvStatus.setTextColor(context.getResources().getColor(R.color.error, null));
         }
-
-        holder.cardView.setOnClickListener(v -> {
-            if (listener != null) {
-                listener.onSaleClick(sale);
-            }
-        });
-    }
-
-    @Override
-    public int getItemCount() {
-        return sales.size();
     }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
@@ -2,13 +2,17 @@ package com.sachintha.posapp.database;
 
 import android.content.Context;
 
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.sachintha.posapp.database.dao.*;
 import com.sachintha.posapp.database.entity.*;
+import com.sachintha.posapp.utils.AppExecutors;
+import com.sachintha.posapp.utils.SearchKeys;
 
 /**
  * Room Database for POS Application
@@ -19,10 +23,13 @@ import com.sachintha.posapp.database.entity.*;
         User.class,
         Category.class,
         Product.class,
+        ProductFts.class,
         Sale.class,
-        SaleItem.class
+        SaleItem.class,
+        DailySalesSummary.class,
+        ProductVelocity.class
     },
-    version = 1,
+    version = 12,
     exportSchema = false
 )
 @TypeConverters(DateConverter.class)
@@ -37,28 +44,79 @@ public abstract class POSDatabase extends RoomDatabase {
     public abstract ProductDao productDao();
     public abstract SaleDao saleDao();
     public abstract SaleItemDao saleItemDao();
+    public abstract DailySalesSummaryDao dailySalesSummaryDao();
+    public abstract ProductVelocityDao productVelocityDao();
 
     public static POSDatabase getInstance(Context context) {
         if (instance == null) {
             synchronized (POSDatabase.class) {
                 if (instance == null) {
+                    AppExecutors executors = AppExecutors.getInstance();
                     instance = Room.databaseBuilder(
                             context.getApplicationContext(),
                             POSDatabase.class,
                             DATABASE_NAME
                     )
-                    .allowMainThreadQueries() // For simplicity; use background threads in production
+                    .setQueryExecutor(executors.reads())
+                    .setTransactionExecutor(executors.writes())
                     .fallbackToDestructiveMigration()
+                    .addCallback(new Callback() {
+                        @Override
+                        public void onOpen(@NonNull SupportSQLiteDatabase db) {
+                            createLowStockTriggers(db);
+                            createCategoryCountTriggers(db);
+                        }
+                    })
                     .build();
-                    
-                    // Initialize default data
-                    initializeDefaultData(instance);
                 }
             }
         }
         return instance;
     }
 
+    /**
+     * Keep products.lowStock equal to stock <= minStock whatever statement changes stock,
+     * so low stock reads can use the (isActive, lowStock, name) index instead of comparing
+     * two columns on every row. Created on open because a destructive migration drops them
+     */
+    private static void createLowStockTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS products_low_stock_insert AFTER INSERT ON products "
+                + "WHEN NEW.lowStock IS NOT (NEW.stock <= NEW.minStock) BEGIN "
+                + "UPDATE products SET lowStock = (NEW.stock <= NEW.minStock) WHERE id = NEW.id; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS products_low_stock_update "
+                + "AFTER UPDATE OF stock, minStock, lowStock ON products "
+                + "WHEN NEW.lowStock IS NOT (NEW.stock <= NEW.minStock) BEGIN "
+                + "UPDATE products SET lowStock = (NEW.stock <= NEW.minStock) WHERE id = NEW.id; END");
+    }
+
+    /**
+     * Keep categories.productCount and activeProductCount in step with products,
+     * so listing categories with their counts is one read of the categories table.
+     * A product moving category or being (de)activated counts as leaving and rejoining
+     */
+    private static void createCategoryCountTriggers(SupportSQLiteDatabase db) {
+        String add = "UPDATE categories SET productCount = productCount + 1, "
+                + "activeProductCount = activeProductCount + NEW.isActive WHERE id = NEW.categoryId; ";
+        String remove = "UPDATE categories SET productCount = productCount - 1, "
+                + "activeProductCount = activeProductCount - OLD.isActive WHERE id = OLD.categoryId; ";
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS products_category_count_insert AFTER INSERT ON products "
+                + "BEGIN " + add + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS products_category_count_delete AFTER DELETE ON products "
+                + "BEGIN " + remove + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS products_category_count_update "
+                + "AFTER UPDATE OF categoryId, isActive ON products "
+                + "WHEN OLD.categoryId IS NOT NEW.categoryId OR OLD.isActive IS NOT NEW.isActive "
+                + "BEGIN " + remove + add + "END");
+    }
+
+    /**
+     * Add the default users, categories and sample products where missing
+     * Run on the writer thread, the startup pipeline does it once per launch
+     */
+    public void seedDefaultData() {
+        initializeDefaultData(this);
+    }
+
     private static void initializeDefaultData(POSDatabase db) {
         // Check if admin user exists
         if (db.userDao().getUserByUsername("admin") == null) {
@@ -94,7 +152,7 @@ public abstract class POSDatabase extends RoomDatabase {
         }
 
         // Add sample products if none exist
-        if (db.productDao().getAllProducts().isEmpty()) {
+        if (db.productDao().getProductCount() == 0) {
             addSampleProducts(db);
         }
     }
@@ -107,38 +165,38 @@ public abstract class POSDatabase extends RoomDatabase {
         Category snacks = db.categoryDao().getCategoryByName("Snacks");
 
         if (groceries != null) {
-            addProduct(db, "Rice (5kg)", "8901234567890", 450.00, 425.00, 50, groceries.getId());
-            addProduct(db, "Wheat Flour (1kg)", "8901234567891", 45.00, 40.00, 100, groceries.getId());
-            addProduct(db, "Sugar (1kg)", "8901234567892", 48.00, 42.00, 80, groceries.getId());
-            addProduct(db, "Salt (1kg)", "8901234567893", 20.00, 15.00, 120, groceries.getId());
-            addProduct(db, "Cooking Oil (1L)", "8901234567894", 180.00, 165.00, 45, groceries.getId());
+            addProduct(db, "Rice (5kg)", "8901234567890", 45000, 42500, 50, groceries.getId());
+            addProduct(db, "Wheat Flour (1kg)", "8901234567891", 4500, 4000, 100, groceries.getId());
+            addProduct(db, "Sugar (1kg)", "8901234567892", 4800, 4200, 80, groceries.getId());
+            addProduct(db, "Salt (1kg)", "8901234567893", 2000, 1500, 120, groceries.getId());
+            addProduct(db, "Cooking Oil (1L)", "8901234567894", 18000, 16500, 45, groceries.getId());
         }
 
         if (beverages != null) {
-            addProduct(db, "Coca Cola (500ml)", "8901234567895", 40.00, 35.00, 200, beverages.getId());
-            addProduct(db, "Pepsi (500ml)", "8901234567896", 40.00, 35.00, 180, beverages.getId());
-            addProduct(db, "Mineral Water (1L)", "8901234567897", 20.00, 15.00, 300, beverages.getId());
-            addProduct(db, "Orange Juice (1L)", "8901234567898", 120.00, 100.00, 60, beverages.getId());
-            addProduct(db, "Green Tea (25 bags)", "8901234567899", 150.00, 130.00, 40, beverages.getId());
+            addProduct(db, "Coca Cola (500ml)", "8901234567895", 4000, 3500, 200, beverages.getId());
+            addProduct(db, "Pepsi (500ml)", "8901234567896", 4000, 3500, 180, beverages.getId());
+            addProduct(db, "Mineral Water (1L)", "8901234567897", 2000, 1500, 300, beverages.getId());
+            addProduct(db, "Orange Juice (1L)", "8901234567898", 12000, 10000, 60, beverages.getId());
+            addProduct(db, "Green Tea (25 bags)", "8901234567899", 15000, 13000, 40, beverages.getId());
         }
 
         if (dairy != null) {
-            addProduct(db, "Fresh Milk (1L)", "8901234567900", 65.00, 58.00, 50, dairy.getId());
-            addProduct(db, "Butter (500g)", "8901234567901", 280.00, 250.00, 30, dairy.getId());
-            addProduct(db, "Cheese (200g)", "8901234567902", 180.00, 160.00, 25, dairy.getId());
-            addProduct(db, "Yogurt (400g)", "8901234567903", 45.00, 38.00, 60, dairy.getId());
+            addProduct(db, "Fresh Milk (1L)", "8901234567900", 6500, 5800, 50, dairy.getId());
+            addProduct(db, "Butter (500g)", "8901234567901", 28000, 25000, 30, dairy.getId());
+            addProduct(db, "Cheese (200g)", "8901234567902", 18000, 16000, 25, dairy.getId());
+            addProduct(db, "Yogurt (400g)", "8901234567903", 4500, 3800, 60, dairy.getId());
         }
 
         if (snacks != null) {
-            addProduct(db, "Potato Chips (100g)", "8901234567904", 30.00, 25.00, 150, snacks.getId());
-            addProduct(db, "Chocolate Bar", "8901234567905", 50.00, 42.00, 100, snacks.getId());
-            addProduct(db, "Cookies (250g)", "8901234567906", 85.00, 75.00, 80, snacks.getId());
-            addProduct(db, "Nuts Mix (200g)", "8901234567907", 220.00, 195.00, 40, snacks.getId());
+            addProduct(db, "Potato Chips (100g)", "8901234567904", 3000, 2500, 150, snacks.getId());
+            addProduct(db, "Chocolate Bar", "8901234567905", 5000, 4200, 100, snacks.getId());
+            addProduct(db, "Cookies (250g)", "8901234567906", 8500, 7500, 80, snacks.getId());
+            addProduct(db, "Nuts Mix (200g)", "8901234567907", 22000, 19500, 40, snacks.getId());
         }
     }
 
     private static void addProduct(POSDatabase db, String name, String barcode, 
-                                   double price, double cost, int stock, long categoryId) {
+                                   long price, long cost, int stock, long categoryId) {
         Product product = new Product();
         product.setName(name);
         product.setBarcode(barcode);
@@ -147,6 +205,7 @@ public abstract class POSDatabase extends RoomDatabase {
         product.setStock(stock);
         product.setCategoryId(categoryId);
         product.setActive(true);
+        product.setSearchKey(SearchKeys.forProduct(product));
         db.productDao().insert(product);
     }
 }
@@ -4,7 +4,6 @@ import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
-import androidx.room.Update;
 
 import com.sachintha.posapp.database.entity.Category;
 
@@ -19,8 +18,15 @@ public interface CategoryDao {
     @Insert
     long insert(Category category);
 
-    @Update
-    void update(Category category);
+    /**
+     * Save the editable fields, the product counts belong to the triggers
+     */
+    default void update(Category category) {
+        updateDetails(category.getId(), category.getName(), category.getDescription(), category.isActive());
+    }
+
+    @Query("UPDATE categories SET name = :name, description = :description, isActive = :isActive WHERE id = :id")
+    void updateDetails(long id, String name, String description, boolean isActive);
 
     @Delete
     void delete(Category category);
@@ -31,12 +37,18 @@ public interface CategoryDao {
     @Query("SELECT * FROM categories WHERE name = :name")
     Category getCategoryByName(String name);
 
+    /**
+     * Active categories with their product counts
+     */
     @Query("SELECT * FROM categories WHERE isActive = 1 ORDER BY name")
     List<Category> getAllActiveCategories();
 
+    /**
+     * All categories with their product counts
+     */
     @Query("SELECT * FROM categories ORDER BY name")
     List<Category> getAllCategories();
 
-    @Query("SELECT COUNT(*) FROM products WHERE categoryId = :categoryId")
+    @Query("SELECT productCount FROM categories WHERE id = :categoryId")
     int getProductCount(long categoryId);
 }
@@ -0,0 +1,41 @@
+package com.sachintha.posapp.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.sachintha.posapp.database.entity.DailySalesSummary;
+
+import java.util.List;
+
+/**
+ * DAO for the daily sales rollup
+ */
+@Dao
+public interface DailySalesSummaryDao {
+
+    /**
+     * Create an empty row for the key if it does not exist yet
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insertIfAbsent(DailySalesSummary summary);
+
+    @Query("UPDATE daily_sales_summary SET saleCount = saleCount + 1, itemCount = itemCount + :itemCount, " +
+           "discount = discount + :discount, tax = tax + :tax, total = total + :total " +
+           "WHERE day = :day AND userId = :userId AND paymentMethod = :paymentMethod")
+    void addSale(int day, long userId, String paymentMethod, int itemCount,
+                 long discount, long tax, long total);
+
+    @Query("SELECT COALESCE(SUM(total), 0) FROM daily_sales_summary WHERE day = :day")
+    long getTotalForDay(int day);
+
+    @Query("SELECT COALESCE(SUM(saleCount), 0) FROM daily_sales_summary WHERE day = :day")
+    int getSalesCountForDay(int day);
+
+    @Query("SELECT * FROM daily_sales_summary WHERE day BETWEEN :fromDay AND :toDay ORDER BY day, userId, paymentMethod")
+    List<DailySalesSummary> getSummariesBetweenDays(int fromDay, int toDay);
+
+    @Query("SELECT * FROM daily_sales_summary WHERE userId = :userId AND day BETWEEN :fromDay AND :toDay ORDER BY day, paymentMethod")
+    List<DailySalesSummary> getSummariesForUser(long userId, int fromDay, int toDay);
+}
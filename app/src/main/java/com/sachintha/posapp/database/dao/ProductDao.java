@@ -4,10 +4,19 @@ import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.RawQuery;
 import androidx.room.Update;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
 import com.sachintha.posapp.database.entity.Product;
+import com.sachintha.posapp.database.projection.InventoryRow;
+import com.sachintha.posapp.database.projection.ProductTile;
+import com.sachintha.posapp.database.projection.StockSummary;
+import com.sachintha.posapp.model.ProductFilter;
+import com.sachintha.posapp.utils.SearchKeys;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -28,33 +37,158 @@ public interface ProductDao {
     @Query("SELECT * FROM products WHERE id = :id")
     Product getProductById(long id);
 
+    @Query("SELECT * FROM products WHERE id IN (:ids)")
+    List<Product> getProductsByIds(List<Long> ids);
+
     @Query("SELECT * FROM products WHERE barcode = :barcode AND isActive = 1")
     Product getProductByBarcode(String barcode);
 
+    @Query("SELECT * FROM products WHERE barcode IN (:barcodes) AND isActive = 1")
+    List<Product> getProductsByBarcodes(List<String> barcodes);
+
     @Query("SELECT * FROM products WHERE isActive = 1 ORDER BY name")
     List<Product> getAllActiveProducts();
 
-    @Query("SELECT * FROM products ORDER BY name")
-    List<Product> getAllProducts();
-
-    @Query("SELECT * FROM products WHERE categoryId = :categoryId AND isActive = 1 ORDER BY name")
-    List<Product> getProductsByCategory(long categoryId);
-
-    @Query("SELECT * FROM products WHERE name LIKE '%' || :query || '%' OR barcode LIKE '%' || :query || '%' AND isActive = 1")
-    List<Product> searchProducts(String query);
-
-    @Query("SELECT * FROM products WHERE stock <= minStock AND isActive = 1")
+    @Query("SELECT COUNT(*) FROM products")
+    int getProductCount();
+
+    /**
+     * One page of the products matching the filter, as whole entities
+     * for screens that edit them
+     */
+    default List<Product> getProductPage(ProductFilter filter, int offset, int limit) {
+        SupportSQLiteQuery query = pageQuery(filter, "products.*", offset, limit);
+        return query != null ? rawProducts(query) : new ArrayList<>();
+    }
+
+    /**
+     * One page of the products matching the filter, with only what a product grid tile shows
+     */
+    default List<ProductTile> getProductTilePage(ProductFilter filter, int offset, int limit) {
+        SupportSQLiteQuery query = pageQuery(filter, ProductTile.COLUMNS, offset, limit);
+        return query != null ? rawProductTiles(query) : new ArrayList<>();
+    }
+
+    /**
+     * One page of the products matching the filter, with only what an inventory row shows
+     */
+    default List<InventoryRow> getInventoryPage(ProductFilter filter, int offset, int limit) {
+        SupportSQLiteQuery query = pageQuery(filter, InventoryRow.COLUMNS, offset, limit);
+        return query != null ? rawInventoryRows(query) : new ArrayList<>();
+    }
+
+    /**
+     * Query for one page of the products matching the filter
+     * Without search text products are in name order, read along the
+     * (isActive, name) or (categoryId, isActive, name) index. With search text
+     * it is a full-text search on the normalized search key: an exact barcode
+     * hit first, then name prefix hits, then the rest, faster selling products
+     * first within each group.
+     * Returns null when the search text has no searchable characters
+     */
+    static SupportSQLiteQuery pageQuery(ProductFilter filter, String columns, int offset, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(columns).append(" FROM products");
+        List<Object> args = new ArrayList<>();
+        String match = null;
+        if (filter.hasQuery()) {
+            match = SearchKeys.toMatchQuery(filter.getQuery());
+            if (match == null) {
+                return null;
+            }
+            sql.append(" JOIN products_fts ON products.id = products_fts.rowid")
+                    .append(" LEFT JOIN product_velocity ON product_velocity.productId = products.id")
+                    .append(" WHERE products_fts MATCH ?");
+            args.add(match);
+        } else {
+            sql.append(" WHERE 1");
+        }
+
+        if (!filter.isIncludeInactive()) {
+            sql.append(" AND products.isActive = 1");
+        }
+        if (filter.getCategoryId() != null) {
+            sql.append(" AND products.categoryId = ?");
+            args.add(filter.getCategoryId());
+        }
+        switch (filter.getStock()) {
+            case LOW:
+                // Unary + keeps SQLite on the lowStock index rather than the stock one
+                sql.append(" AND products.lowStock = 1 AND +products.stock > 0");
+                break;
+            case OUT:
+                sql.append(" AND products.stock <= 0");
+                break;
+            default:
+                break;
+        }
+
+        if (match != null) {
+            String trimmed = filter.getQuery().trim();
+            sql.append(" ORDER BY CASE WHEN products.barcode = ? THEN 0")
+                    .append(" WHEN products.searchKey LIKE ? || '%' ESCAPE '\\' THEN 1 ELSE 2 END,")
+                    .append(" COALESCE(product_velocity.score, 0) DESC, products.name, products.id");
+            args.add(trimmed);
+            args.add(SearchKeys.escapeLike(SearchKeys.normalize(trimmed)));
+        } else {
+            sql.append(" ORDER BY products.name, products.id");
+        }
+        sql.append(" LIMIT ? OFFSET ?");
+        args.add(limit);
+        args.add(offset);
+        return new SimpleSQLiteQuery(sql.toString(), args.toArray());
+    }
+
+    @RawQuery(observedEntities = Product.class)
+    List<Product> rawProducts(SupportSQLiteQuery query);
+
+    @RawQuery(observedEntities = Product.class)
+    List<ProductTile> rawProductTiles(SupportSQLiteQuery query);
+
+    @RawQuery(observedEntities = Product.class)
+    List<InventoryRow> rawInventoryRows(SupportSQLiteQuery query);
+
+    @Query("SELECT * FROM products WHERE isActive = 1 AND lowStock = 1 ORDER BY name")
     List<Product> getLowStockProducts();
 
+    /**
+     * Products in a sale that the sale took to low stock, i.e. low now but not
+     * before the sold quantities came off. Read right after the sale's stock update
+     */
+    @Query("SELECT products.* FROM products " +
+           "JOIN (SELECT productId, SUM(quantity) AS sold FROM sale_items WHERE saleId = :saleId GROUP BY productId) AS sale " +
+           "ON sale.productId = products.id " +
+           "WHERE products.lowStock = 1 AND products.stock + sale.sold > products.minStock")
+    List<Product> getProductsLowAfterSale(long saleId);
+
     @Query("UPDATE products SET stock = stock - :quantity WHERE id = :productId")
     void decreaseStock(long productId, int quantity);
 
+    /**
+     * Decrease stock of every product in a sale by the quantity sold
+     */
+    @Query("UPDATE products SET stock = stock - " +
+           "(SELECT SUM(quantity) FROM sale_items WHERE sale_items.saleId = :saleId AND sale_items.productId = products.id) " +
+           "WHERE id IN (SELECT productId FROM sale_items WHERE saleId = :saleId)")
+    void decreaseStockForSale(long saleId);
+
     @Query("UPDATE products SET stock = stock + :quantity WHERE id = :productId")
     void increaseStock(long productId, int quantity);
 
+    @Query("UPDATE products SET stock = :stock WHERE id = :productId")
+    void setStock(long productId, int stock);
+
     @Query("SELECT COUNT(*) FROM products WHERE isActive = 1")
     int getActiveProductCount();
 
-    @Query("SELECT COUNT(*) FROM products WHERE stock <= minStock AND isActive = 1")
+    @Query("SELECT COUNT(*) FROM products WHERE isActive = 1 AND lowStock = 1")
     int getLowStockCount();
+
+    /**
+     * Active product count with the low stock and out of stock counts
+     * Each count is a range of an index, so only low and out of stock rows are visited
+     */
+    @Query("SELECT (SELECT COUNT(*) FROM products WHERE isActive = 1) AS total, " +
+           "(SELECT COUNT(*) FROM products WHERE isActive = 1 AND lowStock = 1 AND +stock > 0) AS lowStock, " +
+           "(SELECT COUNT(*) FROM products WHERE isActive = 1 AND stock <= 0) AS outOfStock")
+    StockSummary getStockSummary();
 }
@@ -0,0 +1,48 @@
+package com.sachintha.posapp.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import com.sachintha.posapp.database.entity.ProductVelocity;
+
+import java.util.List;
+
+/**
+ * DAO for decayed product sales velocity
+ */
+@Dao
+public interface ProductVelocityDao {
+
+    /**
+     * Create zero rows for products in the sale that have never sold before
+     */
+    @Query("INSERT OR IGNORE INTO product_velocity (productId, score, landmark) " +
+           "SELECT DISTINCT productId, 0, :landmark FROM sale_items WHERE saleId = :saleId AND productId IS NOT NULL")
+    void insertMissingForSale(long saleId, long landmark);
+
+    /**
+     * The landmark every score is weighted from, null before the first sale
+     */
+    @Query("SELECT MAX(landmark) FROM product_velocity")
+    Long getLandmark();
+
+    /**
+     * Move every score to a later landmark, factor being {@link ProductVelocity#weightAt}(old, new)
+     */
+    @Query("UPDATE product_velocity SET score = score * :factor, landmark = :landmark")
+    void rebase(long landmark, double factor);
+
+    /**
+     * Add the quantities of a sale, each unit weighted by {@link ProductVelocity#weightAt}
+     */
+    @Query("UPDATE product_velocity SET score = score + :weight * " +
+           "(SELECT SUM(quantity) FROM sale_items WHERE sale_items.saleId = :saleId AND sale_items.productId = product_velocity.productId) " +
+           "WHERE productId IN (SELECT productId FROM sale_items WHERE saleId = :saleId)")
+    void addSale(long saleId, double weight);
+
+    @Query("SELECT * FROM product_velocity")
+    List<ProductVelocity> getAll();
+
+    @Query("SELECT * FROM product_velocity WHERE productId IN (:productIds)")
+    List<ProductVelocity> getByProductIds(List<Long> productIds);
+}
@@ -4,10 +4,24 @@ import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.RawQuery;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
+import com.sachintha.posapp.database.POSDatabase;
+import com.sachintha.posapp.database.entity.DailySalesSummary;
+import com.sachintha.posapp.database.entity.ProductVelocity;
 import com.sachintha.posapp.database.entity.Sale;
-
+import com.sachintha.posapp.database.entity.SaleItem;
+import com.sachintha.posapp.database.projection.SaleSummary;
+import com.sachintha.posapp.database.projection.SaleWithItems;
+import com.sachintha.posapp.model.SaleFilter;
+import com.sachintha.posapp.utils.DateUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -15,53 +29,218 @@ import java.util.List;
  * DAO for Sale entity operations
  */
 @Dao
-public interface SaleDao {
+public abstract class SaleDao {
+
+    private final POSDatabase database;
+
+    public SaleDao(POSDatabase database) {
+        this.database = database;
+    }
 
     @Insert
-    long insert(Sale sale);
+    public abstract long insert(Sale sale);
 
     @Update
-    void update(Sale sale);
+    public abstract void update(Sale sale);
 
     @Delete
-    void delete(Sale sale);
+    public abstract void delete(Sale sale);
 
     @Query("SELECT * FROM sales WHERE id = :id")
-    Sale getSaleById(long id);
+    public abstract Sale getSaleById(long id);
 
-    @Query("SELECT * FROM sales WHERE invoiceNumber = :invoiceNumber")
-    Sale getSaleByInvoice(String invoiceNumber);
+    /**
+     * A sale and its items, read in one transaction so they always match
+     */
+    @Transaction
+    @Query("SELECT * FROM sales WHERE id = :id")
+    public abstract SaleWithItems getSaleWithItems(long id);
+
+    /**
+     * Sales with their items, two queries however many sales there are
+     * Keep the IDs under SQLite's bind variable limit, see SaleRepository#getSalesWithItems
+     */
+    @Transaction
+    @Query("SELECT * FROM sales WHERE id IN (:ids) ORDER BY saleDate DESC")
+    public abstract List<SaleWithItems> getSalesWithItems(List<Long> ids);
+
+    /**
+     * Sales from startDate (inclusive) up to endDate (exclusive) with their items,
+     * two queries however many sales there are
+     */
+    @Transaction
+    @Query("SELECT * FROM sales WHERE saleDate >= :startDate AND saleDate < :endDate ORDER BY saleDate DESC")
+    public abstract List<SaleWithItems> getSalesWithItemsBetweenDates(Date startDate, Date endDate);
 
-    @Query("SELECT * FROM sales ORDER BY saleDate DESC")
-    List<Sale> getAllSales();
+    @Query("SELECT * FROM sales WHERE invoiceNumber = :invoiceNumber")
+    public abstract Sale getSaleByInvoice(String invoiceNumber);
 
     @Query("SELECT * FROM sales WHERE status = :status ORDER BY saleDate DESC")
-    List<Sale> getSalesByStatus(String status);
+    public abstract List<Sale> getSalesByStatus(String status);
 
-    @Query("SELECT * FROM sales WHERE saleDate BETWEEN :startDate AND :endDate ORDER BY saleDate DESC")
-    List<Sale> getSalesBetweenDates(Date startDate, Date endDate);
+    /**
+     * Sales from startDate (inclusive) up to endDate (exclusive)
+     */
+    @Query("SELECT * FROM sales WHERE saleDate >= :startDate AND saleDate < :endDate ORDER BY saleDate DESC")
+    public abstract List<Sale> getSalesBetweenDates(Date startDate, Date endDate);
 
     @Query("SELECT * FROM sales WHERE userId = :userId ORDER BY saleDate DESC")
-    List<Sale> getSalesByUser(long userId);
+    public abstract List<Sale> getSalesByUser(long userId);
 
     @Query("SELECT COALESCE(SUM(total), 0) FROM sales WHERE status = 'COMPLETED'")
-    double getTotalSales();
+    public abstract long getTotalSales();
 
-    @Query("SELECT COALESCE(SUM(total), 0) FROM sales WHERE saleDate BETWEEN :startDate AND :endDate AND status = 'COMPLETED'")
-    double getTotalSalesBetweenDates(Date startDate, Date endDate);
+    @Query("SELECT COALESCE(SUM(total), 0) FROM sales WHERE status = 'COMPLETED' AND saleDate >= :startDate AND saleDate < :endDate")
+    public abstract long getTotalSalesBetweenDates(Date startDate, Date endDate);
 
     @Query("SELECT COUNT(*) FROM sales WHERE status = 'COMPLETED'")
-    int getTotalSalesCount();
+    public abstract int getTotalSalesCount();
 
-    @Query("SELECT COUNT(*) FROM sales WHERE saleDate BETWEEN :startDate AND :endDate AND status = 'COMPLETED'")
-    int getSalesCountBetweenDates(Date startDate, Date endDate);
+    @Query("SELECT COUNT(*) FROM sales WHERE status = 'COMPLETED' AND saleDate >= :startDate AND saleDate < :endDate")
+    public abstract int getSalesCountBetweenDates(Date startDate, Date endDate);
 
     @Query("SELECT * FROM sales ORDER BY id DESC LIMIT 1")
-    Sale getLastSale();
-
-    @Query("SELECT * FROM sales WHERE DATE(saleDate/1000, 'unixepoch', 'localtime') = DATE('now', 'localtime') AND status = 'COMPLETED' ORDER BY saleDate DESC")
-    List<Sale> getTodaySales();
-
-    @Query("SELECT COALESCE(SUM(total), 0) FROM sales WHERE DATE(saleDate/1000, 'unixepoch', 'localtime') = DATE('now', 'localtime') AND status = 'COMPLETED'")
-    double getTodayTotal();
+    public abstract Sale getLastSale();
+
+    /**
+     * Completed sales for a local day, see {@link DateUtils#toDayKey}
+     */
+    @Query("SELECT * FROM sales WHERE saleDay = :day AND status = 'COMPLETED' ORDER BY saleDate DESC")
+    public abstract List<Sale> getSalesForDay(int day);
+
+    @Query("SELECT COALESCE(SUM(total), 0) FROM sales WHERE saleDay = :day AND status = 'COMPLETED'")
+    public abstract long getTotalForDay(int day);
+
+    @Query("SELECT COUNT(*) FROM sales WHERE saleDay = :day AND status = 'COMPLETED'")
+    public abstract int getSalesCountForDay(int day);
+
+    /**
+     * First page of the sales history, newest first
+     */
+    public List<SaleSummary> getNewestSales(SaleFilter filter, int limit) {
+        return rawSaleSummaries(historyQuery(filter, null, 0, 0, limit));
+    }
+
+    /**
+     * Page of sales older than the (saleDate, id) position, newest first
+     */
+    public List<SaleSummary> getSalesBefore(SaleFilter filter, long saleDate, long id, int limit) {
+        return rawSaleSummaries(historyQuery(filter, "<", saleDate, id, limit));
+    }
+
+    /**
+     * Page of sales newer than the (saleDate, id) position, newest first
+     * These are the closest newer sales, not the newest ones
+     */
+    public List<SaleSummary> getSalesAfter(SaleFilter filter, long saleDate, long id, int limit) {
+        List<SaleSummary> sales = rawSaleSummaries(historyQuery(filter, ">", saleDate, id, limit));
+        Collections.reverse(sales);
+        return sales;
+    }
+
+    @RawQuery(observedEntities = Sale.class)
+    protected abstract List<SaleSummary> rawSaleSummaries(SupportSQLiteQuery query);
+
+    /**
+     * Keyset query over (saleDate, id) with only the active filters in the WHERE clause,
+     * so SQLite can pick the matching (column, saleDate) index and read the page straight
+     * from it. id is the rowid, which every index already ends with, so the tie break
+     * needs no sort either
+     */
+    private static SupportSQLiteQuery historyQuery(SaleFilter filter, String direction,
+                                                   long saleDate, long id, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(SaleSummary.COLUMNS).append(" FROM sales WHERE 1");
+        List<Object> args = new ArrayList<>();
+        if (filter.getStartDate() != null) {
+            sql.append(" AND saleDate >= ?");
+            args.add(filter.getStartDate().getTime());
+        }
+        if (filter.getEndDate() != null) {
+            sql.append(" AND saleDate < ?");
+            args.add(filter.getEndDate().getTime());
+        }
+        if (filter.getUserId() != null) {
+            sql.append(" AND userId = ?");
+            args.add(filter.getUserId());
+        }
+        if (filter.getStatus() != null) {
+            sql.append(" AND status = ?");
+            args.add(filter.getStatus());
+        }
+        if (filter.getPaymentMethod() != null) {
+            sql.append(" AND paymentMethod = ?");
+            args.add(filter.getPaymentMethod());
+        }
+        if (direction != null) {
+            // Written out instead of a row value comparison so the first term is an index range
+            String bound = "<".equals(direction) ? "<=" : ">=";
+            sql.append(" AND saleDate ").append(bound).append(" ?")
+                    .append(" AND (saleDate ").append(direction).append(" ? OR id ").append(direction).append(" ?)");
+            args.add(saleDate);
+            args.add(saleDate);
+            args.add(id);
+        }
+        String order = ">".equals(direction) ? "ASC" : "DESC";
+        sql.append(" ORDER BY saleDate ").append(order).append(", id ").append(order).append(" LIMIT ?");
+        args.add(limit);
+        return new SimpleSQLiteQuery(sql.toString(), args.toArray());
+    }
+
+    public List<Sale> getTodaySales() {
+        return getSalesForDay(DateUtils.todayKey());
+    }
+
+    public long getTodayTotal() {
+        return getTotalForDay(DateUtils.todayKey());
+    }
+
+    /**
+     * Checkout in a single transaction
+     * Writes the sale header and all of its items, takes the sold
+     * quantities out of stock with one statement and adds the sale
+     * to the daily summary and the product velocity scores
+     */
+    @Transaction
+    public long checkout(Sale sale, List<SaleItem> items) {
+        sale.setSaleDay(DateUtils.toDayKey(sale.getSaleDate()));
+        long saleId = insert(sale);
+        sale.setId(saleId);
+        for (SaleItem item : items) {
+            item.setSaleId(saleId);
+        }
+        database.saleItemDao().insertAll(items);
+        database.productDao().decreaseStockForSale(saleId);
+        addToDailySummary(sale, items);
+        addToVelocity(sale);
+        return saleId;
+    }
+
+    private void addToDailySummary(Sale sale, List<SaleItem> items) {
+        int itemCount = 0;
+        for (SaleItem item : items) {
+            itemCount += item.getQuantity();
+        }
+        long userId = sale.getUserId() != null ? sale.getUserId() : 0;
+        String paymentMethod = sale.getPaymentMethod() != null ? sale.getPaymentMethod() : "";
+
+        DailySalesSummaryDao summaryDao = database.dailySalesSummaryDao();
+        summaryDao.insertIfAbsent(new DailySalesSummary(sale.getSaleDay(), userId, paymentMethod));
+        summaryDao.addSale(sale.getSaleDay(), userId, paymentMethod, itemCount,
+                sale.getDiscount(), sale.getTax(), sale.getTotal());
+    }
+
+    private void addToVelocity(Sale sale) {
+        ProductVelocityDao velocityDao = database.productVelocityDao();
+        long saleTime = sale.getSaleDate().getTime();
+        Long landmark = velocityDao.getLandmark();
+        if (landmark == null) {
+            landmark = saleTime;
+        } else if (ProductVelocity.needsRebase(saleTime, landmark)) {
+            // Keeps the weights in double range however long the app runs
+            velocityDao.rebase(saleTime, ProductVelocity.weightAt(landmark, saleTime));
+            landmark = saleTime;
+        }
+        velocityDao.insertMissingForSale(sale.getId(), landmark);
+        velocityDao.addSale(sale.getId(), ProductVelocity.weightAt(saleTime, landmark));
+    }
 }
@@ -36,7 +36,4 @@ public interface SaleItemDao {
 
     @Query("DELETE FROM sale_items WHERE saleId = :saleId")
     void deleteBySaleId(long saleId);
-
-    @Query("SELECT SUM(quantity) FROM sale_items WHERE productId = :productId")
-    int getTotalQuantitySold(long productId);
 }
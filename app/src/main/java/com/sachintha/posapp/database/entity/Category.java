@@ -5,6 +5,7 @@ import androidx.room.PrimaryKey;
 
 /**
  * Category entity for product categorization
+ * The product counts are kept up to date by triggers on products, see POSDatabase
  */
 @Entity(tableName = "categories")
 public class Category {
@@ -15,6 +16,8 @@ public class Category {
     private String name;
     private String description;
     private boolean isActive;
+    private int productCount;
+    private int activeProductCount;
 
     // Getters and Setters
     public long getId() {
@@ -49,6 +52,22 @@ public class Category {
         isActive = active;
     }
 
+    public int getProductCount() {
+        return productCount;
+    }
+
+    public void setProductCount(int productCount) {
+        this.productCount = productCount;
+    }
+
+    public int getActiveProductCount() {
+        return activeProductCount;
+    }
+
+    public void setActiveProductCount(int activeProductCount) {
+        this.activeProductCount = activeProductCount;
+    }
+
     @Override
     public String toString() {
         return name;
@@ -0,0 +1,102 @@
+package com.sachintha.posapp.database.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+
+/**
+ * Daily sales rollup per cashier and payment method
+ * Updated inside the checkout transaction so dashboard and report
+ * reads never have to aggregate raw sales
+ * Amounts are in cents (minor currency units)
+ */
+@Entity(
+    tableName = "daily_sales_summary",
+    primaryKeys = {"day", "userId", "paymentMethod"}
+)
+public class DailySalesSummary {
+
+    private int day; // local calendar day as yyyyMMdd
+    private long userId; // 0 when the sale has no cashier
+    @NonNull
+    private String paymentMethod = "";
+    private int saleCount;
+    private int itemCount;
+    private long discount;
+    private long tax;
+    private long total;
+
+    public DailySalesSummary() {
+    }
+
+    public DailySalesSummary(int day, long userId, @NonNull String paymentMethod) {
+        this.day = day;
+        this.userId = userId;
+        this.paymentMethod = paymentMethod;
+    }
+
+    // Getters and Setters
+    public int getDay() {
+        return day;
+    }
+
+    public void setDay(int day) {
+        this.day = day;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(long userId) {
+        this.userId = userId;
+    }
+
+    @NonNull
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(@NonNull String paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public int getSaleCount() {
+        return saleCount;
+    }
+
+    public void setSaleCount(int saleCount) {
+        this.saleCount = saleCount;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(int itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    public long getDiscount() {
+        return discount;
+    }
+
+    public void setDiscount(long discount) {
+        this.discount = discount;
+    }
+
+    public long getTax() {
+        return tax;
+    }
+
+    public void setTax(long tax) {
+        this.tax = tax;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+}
@@ -7,6 +7,7 @@ import androidx.room.PrimaryKey;
 
 /**
  * Product entity for inventory items
+ * Prices are in cents (minor currency units)
  */
 @Entity(
     tableName = "products",
@@ -16,7 +17,14 @@ import androidx.room.PrimaryKey;
         childColumns = "categoryId",
         onDelete = ForeignKey.SET_NULL
     ),
-    indices = {@Index("categoryId"), @Index("barcode")}
+    indices = {
+        @Index("name"),
+        @Index({"isActive", "name"}),
+        @Index({"categoryId", "isActive", "name"}),
+        @Index({"isActive", "stock"}),
+        @Index({"isActive", "lowStock", "name"}),
+        @Index("barcode")
+    }
 )
 public class Product {
 
@@ -26,13 +34,15 @@ public class Product {
     private String name;
     private String barcode;
     private String description;
-    private double price;
-    private double costPrice;
+    private long price;
+    private long costPrice;
     private int stock;
     private int minStock;
+    private boolean lowStock; // stock <= minStock, kept in step by triggers, see POSDatabase
     private Long categoryId;
     private String imageUrl;
     private boolean isActive;
+    private String searchKey; // see SearchKeys, set by the repository on insert and update
 
     // Getters and Setters
     public long getId() {
@@ -67,19 +77,19 @@ public class Product {
         this.description = description;
     }
 
-    public double getPrice() {
+    public long getPrice() {
         return price;
     }
 
-    public void setPrice(double price) {
+    public void setPrice(long price) {
         this.price = price;
     }
 
-    public double getCostPrice() {
+    public long getCostPrice() {
         return costPrice;
     }
 
-    public void setCostPrice(double costPrice) {
+    public void setCostPrice(long costPrice) {
         this.costPrice = costPrice;
     }
 
@@ -89,6 +99,7 @@ public class Product {
 
     public void setStock(int stock) {
         this.stock = stock;
+        this.lowStock = stock <= minStock;
     }
 
     public int getMinStock() {
@@ -97,6 +108,7 @@ public class Product {
 
     public void setMinStock(int minStock) {
         this.minStock = minStock;
+        this.lowStock = stock <= minStock;
     }
 
     public Long getCategoryId() {
@@ -123,7 +135,19 @@ public class Product {
         isActive = active;
     }
 
+    public String getSearchKey() {
+        return searchKey;
+    }
+
+    public void setSearchKey(String searchKey) {
+        this.searchKey = searchKey;
+    }
+
     public boolean isLowStock() {
-        return stock <= minStock;
+        return lowStock;
+    }
+
+    public void setLowStock(boolean lowStock) {
+        this.lowStock = lowStock;
     }
 }
@@ -0,0 +1,38 @@
+package com.sachintha.posapp.database.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.PrimaryKey;
+
+/**
+ * Full-text index over the product search key (name, barcode and description)
+ * Backed by the products table; Room keeps it in sync with triggers
+ */
+@Fts4(contentEntity = Product.class, prefix = {2, 3})
+@Entity(tableName = "products_fts")
+public class ProductFts {
+
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private long rowId;
+
+    private String searchKey;
+
+    // Getters and Setters
+    public long getRowId() {
+        return rowId;
+    }
+
+    public void setRowId(long rowId) {
+        this.rowId = rowId;
+    }
+
+    public String getSearchKey() {
+        return searchKey;
+    }
+
+    public void setSearchKey(String searchKey) {
+        this.searchKey = searchKey;
+    }
+}
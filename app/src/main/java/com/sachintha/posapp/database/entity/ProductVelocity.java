@@ -0,0 +1,76 @@
+package com.sachintha.posapp.database.entity;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.PrimaryKey;
+
+/**
+ * Decayed sales velocity per product, used to rank search results and quick keys
+ * Uses forward decay: each sale adds quantity * weightAt(saleTime, landmark),
+ * where the weight grows exponentially from a landmark shared by every row.
+ * Comparing stored scores is the same as comparing scores decayed to the
+ * present, so nothing has to be rewritten per sale. Weights would leave double
+ * range about 19 years after the landmark, so once a sale comes a year after
+ * it every row is scaled down and the landmark moves to that sale.
+ */
+@Entity(
+    tableName = "product_velocity",
+    foreignKeys = @ForeignKey(
+        entity = Product.class,
+        parentColumns = "id",
+        childColumns = "productId",
+        onDelete = ForeignKey.CASCADE
+    )
+)
+public class ProductVelocity {
+
+    private static final double HALF_LIFE_MS = 7 * 24 * 60 * 60 * 1000.0;
+    private static final double DECAY_RATE = Math.log(2) / HALF_LIFE_MS;
+    // 52 half-lives, weights reach 2^52 and stay exact to the unit
+    private static final long REBASE_AFTER_MS = 52 * 7 * 24 * 60 * 60 * 1000L;
+
+    @PrimaryKey
+    private long productId;
+    private double score;
+    private long landmark; // epoch millis the score is weighted from
+
+    /**
+     * Weight of one unit sold at the given time, relative to the landmark
+     * Below 1 for times before it, so it also gives the factor for moving scores to a later landmark
+     */
+    public static double weightAt(long timeMillis, long landmark) {
+        return Math.exp(DECAY_RATE * (timeMillis - landmark));
+    }
+
+    /**
+     * True if scores should move to a sale at this time before adding it
+     */
+    public static boolean needsRebase(long timeMillis, long landmark) {
+        return timeMillis - landmark > REBASE_AFTER_MS;
+    }
+
+    // Getters and Setters
+    public long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(long productId) {
+        this.productId = productId;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    public long getLandmark() {
+        return landmark;
+    }
+
+    public void setLandmark(long landmark) {
+        this.landmark = landmark;
+    }
+}
@@ -9,6 +9,7 @@ import java.util.Date;
 
 /**
  * Sale entity for transaction records
+ * Amounts are in cents (minor currency units)
  */
 @Entity(
     tableName = "sales",
@@ -18,7 +19,13 @@ import java.util.Date;
         childColumns = "userId",
         onDelete = ForeignKey.SET_NULL
     ),
-    indices = {@Index("userId")}
+    indices = {
+        @Index("saleDate"),
+        @Index({"status", "saleDate"}),
+        @Index({"userId", "saleDate"}),
+        @Index({"paymentMethod", "saleDate"}),
+        @Index("saleDay")
+    }
 )
 public class Sale {
 
@@ -29,12 +36,13 @@ public class Sale {
     private Long userId;
     private String cashierName;
     private Date saleDate;
-    private double subtotal;
-    private double discount;
-    private double tax;
-    private double total;
-    private double amountPaid;
-    private double change;
+    private int saleDay; // local calendar day as yyyyMMdd
+    private long subtotal;
+    private long discount;
+    private long tax;
+    private long total;
+    private long amountPaid;
+    private long change;
     private String paymentMethod; // CASH, CARD
     private String status; // COMPLETED, REFUNDED, CANCELLED
 
@@ -79,51 +87,59 @@ public class Sale {
         this.saleDate = saleDate;
     }
 
-    public double getSubtotal() {
+    public int getSaleDay() {
+        return saleDay;
+    }
+
+    public void setSaleDay(int saleDay) {
+        this.saleDay = saleDay;
+    }
+
+    public long getSubtotal() {
         return subtotal;
     }
 
-    public void setSubtotal(double subtotal) {
+    public void setSubtotal(long subtotal) {
         this.subtotal = subtotal;
     }
 
-    public double getDiscount() {
+    public long getDiscount() {
         return discount;
     }
 
-    public void setDiscount(double discount) {
+    public void setDiscount(long discount) {
         this.discount = discount;
     }
 
-    public double getTax() {
+    public long getTax() {
         return tax;
     }
 
-    public void setTax(double tax) {
+    public void setTax(long tax) {
         this.tax = tax;
     }
 
-    public double getTotal() {
+    public long getTotal() {
         return total;
     }
 
-    public void setTotal(double total) {
+    public void setTotal(long total) {
         this.total = total;
     }
 
-    public double getAmountPaid() {
+    public long getAmountPaid() {
         return amountPaid;
     }
 
-    public void setAmountPaid(double amountPaid) {
+    public void setAmountPaid(long amountPaid) {
         this.amountPaid = amountPaid;
     }
 
-    public double getChange() {
+    public long getChange() {
         return change;
     }
 
-    public void setChange(double change) {
+    public void setChange(long change) {
         this.change = change;
     }
 
@@ -7,6 +7,7 @@ import androidx.room.PrimaryKey;
 
 /**
  * SaleItem entity for individual items in a sale
+ * Amounts are in cents (minor currency units)
  */
 @Entity(
     tableName = "sale_items",
@@ -36,9 +37,9 @@ public class SaleItem {
     private String productName;
     private String productBarcode;
     private int quantity;
-    private double unitPrice;
-    private double discount;
-    private double total;
+    private long unitPrice;
+    private long discount;
+    private long total;
 
     // Getters and Setters
     public long getId() {
@@ -89,27 +90,27 @@ public class SaleItem {
         this.quantity = quantity;
     }
 
-    public double getUnitPrice() {
+    public long getUnitPrice() {
         return unitPrice;
     }
 
-    public void setUnitPrice(double unitPrice) {
+    public void setUnitPrice(long unitPrice) {
         this.unitPrice = unitPrice;
     }
 
-    public double getDiscount() {
+    public long getDiscount() {
         return discount;
     }
 
-    public void setDiscount(double discount) {
+    public void setDiscount(long discount) {
         this.discount = discount;
     }
 
-    public double getTotal() {
+    public long getTotal() {
         return total;
     }
 
-    public void setTotal(double total) {
+    public void setTotal(long total) {
         this.total = total;
     }
 }
@@ -0,0 +1,72 @@
+package com.sachintha.posapp.database.projection;
+
+import com.sachintha.posapp.database.entity.Product;
+
+/**
+ * The product columns the inventory list shows
+ */
+public class InventoryRow {
+
+    public static final String COLUMNS =
+            "products.id, products.name, products.barcode, products.stock, products.minStock";
+
+    private long id;
+    private String name;
+    private String barcode;
+    private int stock;
+    private int minStock;
+
+    public static InventoryRow of(Product product) {
+        InventoryRow row = new InventoryRow();
+        row.id = product.getId();
+        row.name = product.getName();
+        row.barcode = product.getBarcode();
+        row.stock = product.getStock();
+        row.minStock = product.getMinStock();
+        return row;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getBarcode() {
+        return barcode;
+    }
+
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
+
+    public int getStock() {
+        return stock;
+    }
+
+    public void setStock(int stock) {
+        this.stock = stock;
+    }
+
+    public int getMinStock() {
+        return minStock;
+    }
+
+    public void setMinStock(int minStock) {
+        this.minStock = minStock;
+    }
+
+    public boolean isLowStock() {
+        return stock <= minStock;
+    }
+}
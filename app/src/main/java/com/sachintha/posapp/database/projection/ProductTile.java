@@ -0,0 +1,73 @@
+package com.sachintha.posapp.database.projection;
+
+import com.sachintha.posapp.database.entity.Product;
+
+/**
+ * The product columns the POS grid shows
+ * Prices are in cents (minor currency units)
+ */
+public class ProductTile {
+
+    public static final String COLUMNS =
+            "products.id, products.name, products.price, products.stock, products.minStock";
+
+    private long id;
+    private String name;
+    private long price;
+    private int stock;
+    private int minStock;
+
+    public static ProductTile of(Product product) {
+        ProductTile tile = new ProductTile();
+        tile.id = product.getId();
+        tile.name = product.getName();
+        tile.price = product.getPrice();
+        tile.stock = product.getStock();
+        tile.minStock = product.getMinStock();
+        return tile;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getPrice() {
+        return price;
+    }
+
+    public void setPrice(long price) {
+        this.price = price;
+    }
+
+    public int getStock() {
+        return stock;
+    }
+
+    public void setStock(int stock) {
+        this.stock = stock;
+    }
+
+    public int getMinStock() {
+        return minStock;
+    }
+
+    public void setMinStock(int minStock) {
+        this.minStock = minStock;
+    }
+
+    public boolean isLowStock() {
+        return stock <= minStock;
+    }
+}
@@ -0,0 +1,77 @@
+package com.sachintha.posapp.database.projection;
+
+import java.util.Date;
+
+/**
+ * The sale columns the sales history shows
+ * Amounts are in cents (minor currency units)
+ */
+public class SaleSummary {
+
+    public static final String COLUMNS =
+            "id, invoiceNumber, cashierName, saleDate, total, paymentMethod, status";
+
+    private long id;
+    private String invoiceNumber;
+    private String cashierName;
+    private Date saleDate;
+    private long total;
+    private String paymentMethod;
+    private String status;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getInvoiceNumber() {
+        return invoiceNumber;
+    }
+
+    public void setInvoiceNumber(String invoiceNumber) {
+        this.invoiceNumber = invoiceNumber;
+    }
+
+    public String getCashierName() {
+        return cashierName;
+    }
+
+    public void setCashierName(String cashierName) {
+        this.cashierName = cashierName;
+    }
+
+    public Date getSaleDate() {
+        return saleDate;
+    }
+
+    public void setSaleDate(Date saleDate) {
+        this.saleDate = saleDate;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(String paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
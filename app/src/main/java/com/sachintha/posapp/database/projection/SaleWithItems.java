@@ -0,0 +1,47 @@
+package com.sachintha.posapp.database.projection;
+
+import androidx.room.Embedded;
+import androidx.room.Relation;
+
+import com.sachintha.posapp.database.entity.Sale;
+import com.sachintha.posapp.database.entity.SaleItem;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A sale with its items, as needed for a receipt
+ * Room loads the items of every sale in a result with one extra query
+ * on the saleId index. That query has no ORDER BY, so the items are put
+ * back in the order they were added when Room sets them
+ */
+public class SaleWithItems {
+
+    @Embedded
+    private Sale sale;
+
+    @Relation(parentColumn = "id", entityColumn = "saleId")
+    private List<SaleItem> items;
+
+    public Sale getSale() {
+        return sale;
+    }
+
+    public void setSale(Sale sale) {
+        this.sale = sale;
+    }
+
+    public List<SaleItem> getItems() {
+        return items;
+    }
+
+    /**
+     * Sorted by item ID, i.e. the order the items were added
+     */
+    public void setItems(List<SaleItem> items) {
+        if (items != null) {
+            items.sort(Comparator.comparingLong(SaleItem::getId));
+        }
+        this.items = items;
+    }
+}
@@ -0,0 +1,36 @@
+package com.sachintha.posapp.database.projection;
+
+/**
+ * Active product counts by stock level
+ * Low stock does not include out of stock products
+ */
+public class StockSummary {
+
+    private int total;
+    private int lowStock;
+    private int outOfStock;
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getLowStock() {
+        return lowStock;
+    }
+
+    public void setLowStock(int lowStock) {
+        this.lowStock = lowStock;
+    }
+
+    public int getOutOfStock() {
+        return outOfStock;
+    }
+
+    public void setOutOfStock(int outOfStock) {
+        this.outOfStock = outOfStock;
+    }
+}
@@ -1,23 +1,36 @@
 package com.sachintha.posapp.model;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.sachintha.posapp.database.entity.Product;
+import com.sachintha.posapp.utils.MoneyUtils;
 
 /**
  * Shopping Cart model for POS operations
- * Manages cart items and calculates totals
+ * Manages cart items and calculates totals in cents
+ * Items are indexed by product ID in the order they were added, and the
+ * totals are kept up to date on every change so reading them is O(1).
+ * Change quantities through the cart, not on the CartItem directly.
  */
 public class Cart {
 
     private static Cart instance;
-    private List<CartItem> items;
+    private final Map<Long, CartItem> items;
     private double discountPercentage;
     private double taxPercentage;
 
+    // Running totals, updated by every mutation
+    private long subtotal;
+    private int totalQuantity;
+    private long discountAmount;
+    private long taxAmount;
+    private long total;
+
     private Cart() {
-        items = new ArrayList<>();
+        items = new LinkedHashMap<>();
         discountPercentage = 0;
         taxPercentage = 0; // Set to 0 by default, can be configured
     }
@@ -33,19 +46,17 @@ public class Cart {
      * Add product to cart
      */
     public void addProduct(Product product) {
-        // Check if product already exists in cart
-        for (CartItem item : items) {
-            if (item.getProductId() == product.getId()) {
-                // Check if we have enough stock
-                if (item.getQuantity() < product.getStock()) {
-                    item.incrementQuantity();
-                }
-                return;
+        CartItem item = items.get(product.getId());
+        if (item != null) {
+            // Check if we have enough stock
+            if (item.getQuantity() < product.getStock()) {
+                setItemQuantity(item, item.getQuantity() + 1);
             }
+            return;
         }
         // Add new item if not exists
         if (product.getStock() > 0) {
-            items.add(new CartItem(product));
+            addItem(new CartItem(product));
         }
     }
 
@@ -53,16 +64,15 @@ public class Cart {
      * Add product with specific quantity
      */
     public void addProduct(Product product, int quantity) {
-        for (CartItem item : items) {
-            if (item.getProductId() == product.getId()) {
-                int newQty = Math.min(item.getQuantity() + quantity, product.getStock());
-                item.setQuantity(newQty);
-                return;
-            }
+        CartItem item = items.get(product.getId());
+        if (item != null) {
+            int newQty = Math.min(item.getQuantity() + quantity, product.getStock());
+            setItemQuantity(item, newQty);
+            return;
         }
         int qty = Math.min(quantity, product.getStock());
         if (qty > 0) {
-            items.add(new CartItem(product, qty));
+            addItem(new CartItem(product, qty));
         }
     }
 
@@ -70,23 +80,27 @@ public class Cart {
      * Remove product from cart
      */
     public void removeProduct(long productId) {
-        items.removeIf(item -> item.getProductId() == productId);
+        CartItem item = items.remove(productId);
+        if (item != null) {
+            subtotal -= item.getSubtotal();
+            totalQuantity -= item.getQuantity();
+            recalculate();
+        }
     }
 
     /**
      * Update item quantity
      */
     public void updateQuantity(long productId, int quantity) {
-        for (CartItem item : items) {
-            if (item.getProductId() == productId) {
-                if (quantity <= 0) {
-                    removeProduct(productId);
-                } else {
-                    int maxQty = item.getProduct().getStock();
-                    item.setQuantity(Math.min(quantity, maxQty));
-                }
-                return;
-            }
+        CartItem item = items.get(productId);
+        if (item == null) {
+            return;
+        }
+        if (quantity <= 0) {
+            removeProduct(productId);
+        } else {
+            int maxQty = item.getProduct().getStock();
+            setItemQuantity(item, Math.min(quantity, maxQty));
         }
     }
 
@@ -94,13 +108,9 @@ public class Cart {
      * Increment item quantity
      */
     public void incrementQuantity(long productId) {
-        for (CartItem item : items) {
-            if (item.getProductId() == productId) {
-                if (item.getQuantity() < item.getProduct().getStock()) {
-                    item.incrementQuantity();
-                }
-                return;
-            }
+        CartItem item = items.get(productId);
+        if (item != null && item.getQuantity() < item.getProduct().getStock()) {
+            setItemQuantity(item, item.getQuantity() + 1);
         }
     }
 
@@ -108,15 +118,14 @@ public class Cart {
      * Decrement item quantity
      */
     public void decrementQuantity(long productId) {
-        for (CartItem item : items) {
-            if (item.getProductId() == productId) {
-                if (item.getQuantity() > 1) {
-                    item.decrementQuantity();
-                } else {
-                    removeProduct(productId);
-                }
-                return;
-            }
+        CartItem item = items.get(productId);
+        if (item == null) {
+            return;
+        }
+        if (item.getQuantity() > 1) {
+            setItemQuantity(item, item.getQuantity() - 1);
+        } else {
+            removeProduct(productId);
         }
     }
 
@@ -126,13 +135,21 @@ public class Cart {
     public void clear() {
         items.clear();
         discountPercentage = 0;
+        subtotal = 0;
+        totalQuantity = 0;
+        recalculate();
     }
 
     /**
-     * Get all cart items
+     * Get a snapshot of the cart items
+     * Later cart changes do not show up in it, so adapters can diff old and new lists
      */
     public List<CartItem> getItems() {
-        return new ArrayList<>(items);
+        List<CartItem> snapshot = new ArrayList<>(items.size());
+        for (CartItem item : items.values()) {
+            snapshot.add(item.copy());
+        }
+        return snapshot;
     }
 
     /**
@@ -146,11 +163,7 @@ public class Cart {
      * Get total quantity of all items
      */
     public int getTotalQuantity() {
-        int total = 0;
-        for (CartItem item : items) {
-            total += item.getQuantity();
-        }
-        return total;
+        return totalQuantity;
     }
 
     /**
@@ -163,33 +176,29 @@ public class Cart {
     /**
      * Get subtotal (before discount and tax)
      */
-    public double getSubtotal() {
-        double subtotal = 0;
-        for (CartItem item : items) {
-            subtotal += item.getSubtotal();
-        }
+    public long getSubtotal() {
         return subtotal;
     }
 
     /**
      * Get discount amount
      */
-    public double getDiscountAmount() {
-        return getSubtotal() * (discountPercentage / 100);
+    public long getDiscountAmount() {
+        return discountAmount;
     }
 
     /**
      * Get tax amount
      */
-    public double getTaxAmount() {
-        return (getSubtotal() - getDiscountAmount()) * (taxPercentage / 100);
+    public long getTaxAmount() {
+        return taxAmount;
     }
 
     /**
      * Get total amount
      */
-    public double getTotal() {
-        return getSubtotal() - getDiscountAmount() + getTaxAmount();
+    public long getTotal() {
+        return total;
     }
 
     /**
@@ -197,6 +206,7 @@ public class Cart {
      */
     public void setDiscountPercentage(double discountPercentage) {
         this.discountPercentage = discountPercentage;
+        recalculate();
     }
 
     public double getDiscountPercentage() {
@@ -208,6 +218,7 @@ public class Cart {
      */
     public void setTaxPercentage(double taxPercentage) {
         this.taxPercentage = taxPercentage;
+        recalculate();
     }
 
     public double getTaxPercentage() {
@@ -218,23 +229,41 @@ public class Cart {
      * Check if product exists in cart
      */
     public boolean containsProduct(long productId) {
-        for (CartItem item : items) {
-            if (item.getProductId() == productId) {
-                return true;
-            }
-        }
-        return false;
+        return items.containsKey(productId);
     }
 
     /**
      * Get cart item by product ID
      */
     public CartItem getCartItem(long productId) {
-        for (CartItem item : items) {
-            if (item.getProductId() == productId) {
-                return item;
-            }
+        return items.get(productId);
+    }
+
+    private void addItem(CartItem item) {
+        items.put(item.getProductId(), item);
+        subtotal += item.getSubtotal();
+        totalQuantity += item.getQuantity();
+        recalculate();
+    }
+
+    private void setItemQuantity(CartItem item, int quantity) {
+        int delta = quantity - item.getQuantity();
+        if (delta == 0) {
+            return;
         }
-        return null;
+        item.setQuantity(quantity);
+        subtotal += item.getUnitPrice() * delta;
+        totalQuantity += delta;
+        recalculate();
+    }
+
+    /**
+     * Derive discount, tax and total from the running subtotal
+     * Each percentage is rounded to the cent once, so the parts always add up to the total
+     */
+    private void recalculate() {
+        discountAmount = MoneyUtils.percentOf(subtotal, discountPercentage);
+        taxAmount = MoneyUtils.percentOf(subtotal - discountAmount, taxPercentage);
+        total = subtotal - discountAmount + taxAmount;
     }
 }
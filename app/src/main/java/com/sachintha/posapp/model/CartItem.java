@@ -5,12 +5,13 @@ import com.sachintha.posapp.database.entity.Product;
 /**
  * Cart Item model for POS operations
  * Represents a product in the shopping cart with quantity
+ * Amounts are in cents (minor currency units)
  */
 public class CartItem {
 
     private Product product;
     private int quantity;
-    private double discount;
+    private long discount;
 
     public CartItem(Product product) {
         this.product = product;
@@ -36,6 +37,9 @@ public class CartItem {
         return quantity;
     }
 
+    /**
+     * Cart keeps running totals, so change quantities through Cart instead
+     */
     public void setQuantity(int quantity) {
         this.quantity = quantity;
     }
@@ -50,22 +54,31 @@ public class CartItem {
         }
     }
 
-    public double getDiscount() {
+    public long getDiscount() {
         return discount;
     }
 
-    public void setDiscount(double discount) {
+    public void setDiscount(long discount) {
         this.discount = discount;
     }
 
-    public double getSubtotal() {
+    public long getSubtotal() {
         return product.getPrice() * quantity;
     }
 
-    public double getTotal() {
+    public long getTotal() {
         return getSubtotal() - discount;
     }
 
+    /**
+     * Copy of this line, sharing the same product
+     */
+    public CartItem copy() {
+        CartItem copy = new CartItem(product, quantity);
+        copy.discount = discount;
+        return copy;
+    }
+
     public long getProductId() {
         return product.getId();
     }
@@ -74,7 +87,7 @@ public class CartItem {
         return product.getName();
     }
 
-    public double getUnitPrice() {
+    public long getUnitPrice() {
         return product.getPrice();
     }
 
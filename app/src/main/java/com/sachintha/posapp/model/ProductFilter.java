@@ -0,0 +1,84 @@
+package com.sachintha.posapp.model;
+
+import com.sachintha.posapp.database.entity.Product;
+
+/**
+ * Filters for the paged product lists
+ * Unset (null) fields match every product
+ */
+public class ProductFilter {
+
+    public enum Stock {
+        ALL, LOW, OUT
+    }
+
+    private String query;
+    private Long categoryId;
+    private Stock stock = Stock.ALL;
+    private boolean includeInactive;
+
+    public ProductFilter copy() {
+        ProductFilter copy = new ProductFilter();
+        copy.query = query;
+        copy.categoryId = categoryId;
+        copy.stock = stock;
+        copy.includeInactive = includeInactive;
+        return copy;
+    }
+
+    /**
+     * Same test as the SQL filters, apart from the search text
+     */
+    public boolean matches(Product product) {
+        if (!includeInactive && !product.isActive()) {
+            return false;
+        }
+        if (categoryId != null && !categoryId.equals(product.getCategoryId())) {
+            return false;
+        }
+        switch (stock) {
+            case LOW:
+                return product.getStock() > 0 && product.isLowStock();
+            case OUT:
+                return product.getStock() <= 0;
+            default:
+                return true;
+        }
+    }
+
+    public boolean hasQuery() {
+        return query != null && !query.trim().isEmpty();
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Stock getStock() {
+        return stock;
+    }
+
+    public void setStock(Stock stock) {
+        this.stock = stock;
+    }
+
+    public boolean isIncludeInactive() {
+        return includeInactive;
+    }
+
+    public void setIncludeInactive(boolean includeInactive) {
+        this.includeInactive = includeInactive;
+    }
+}
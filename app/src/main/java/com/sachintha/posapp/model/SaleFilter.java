@@ -0,0 +1,66 @@
+package com.sachintha.posapp.model;
+
+import java.util.Date;
+
+/**
+ * Filters for the sales history
+ * Unset (null) fields match every sale
+ */
+public class SaleFilter {
+
+    private Date startDate; // inclusive
+    private Date endDate; // exclusive
+    private Long userId;
+    private String status;
+    private String paymentMethod;
+
+    public SaleFilter copy() {
+        SaleFilter copy = new SaleFilter();
+        copy.startDate = startDate;
+        copy.endDate = endDate;
+        copy.userId = userId;
+        copy.status = status;
+        copy.paymentMethod = paymentMethod;
+        return copy;
+    }
+
+    public Date getStartDate() {
+        return startDate;
+    }
+
+    public Date getEndDate() {
+        return endDate;
+    }
+
+    /**
+     * Sales from startDate (inclusive) up to endDate (exclusive)
+     */
+    public void setDateRange(Date startDate, Date endDate) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(String paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+}
@@ -0,0 +1,178 @@
+package com.sachintha.posapp.repository;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Barcode to value map tuned for numeric EAN/UPC codes
+ * Numeric codes of up to 17 digits are packed into a long and kept in an
+ * open-addressing table, so looking one up allocates nothing. Other codes
+ * such as CODE_128 or CODE_39 go to a plain string map.
+ * Not thread-safe, callers synchronize.
+ */
+class BarcodeIndex<V> {
+
+    private static final int MAX_NUMERIC_DIGITS = 17; // 10^17 << 5 still fits in a long
+    private static final long NO_KEY = 0L;            // packed keys always carry a length >= 1
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int size;
+
+    private final Map<String, V> otherCodes = new HashMap<>();
+
+    public V get(CharSequence barcode) {
+        long key = pack(barcode);
+        if (key == NO_KEY) {
+            return barcode != null ? otherCodes.get(barcode.toString()) : null;
+        }
+        int slot = find(key);
+        return slot >= 0 ? value(slot) : null;
+    }
+
+    public void put(String barcode, V value) {
+        long key = pack(barcode);
+        if (key == NO_KEY) {
+            if (barcode != null) {
+                otherCodes.put(barcode, value);
+            }
+            return;
+        }
+        if ((size + 1) * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != NO_KEY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    /**
+     * Remove the barcode only if it still maps to the given value
+     */
+    public void remove(String barcode, V value) {
+        long key = pack(barcode);
+        if (key == NO_KEY) {
+            if (barcode != null) {
+                otherCodes.remove(barcode, value);
+            }
+            return;
+        }
+        int slot = find(key);
+        if (slot >= 0 && values[slot] == value) {
+            delete(slot);
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, NO_KEY);
+        Arrays.fill(values, null);
+        size = 0;
+        otherCodes.clear();
+    }
+
+    public int size() {
+        return size + otherCodes.size();
+    }
+
+    /**
+     * Pack a numeric barcode as (digits << 5) | length, keeping leading zeros
+     * Returns NO_KEY for codes that are not all digits or are too long
+     */
+    static long pack(CharSequence barcode) {
+        if (barcode == null) {
+            return NO_KEY;
+        }
+        int length = barcode.length();
+        if (length == 0 || length > MAX_NUMERIC_DIGITS) {
+            return NO_KEY;
+        }
+        long digits = 0;
+        for (int i = 0; i < length; i++) {
+            char c = barcode.charAt(i);
+            if (c < '0' || c > '9') {
+                return NO_KEY;
+            }
+            digits = digits * 10 + (c - '0');
+        }
+        return (digits << 5) | length;
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != NO_KEY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Linear probing delete, shifts later entries of the same run back so
+     * lookups never stop early at the freed slot
+     */
+    private void delete(int slot) {
+        int mask = keys.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != NO_KEY) {
+            int home = hash(keys[next]) & mask;
+            // Move the entry into the gap unless its home lies between gap and next
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = NO_KEY;
+        values[gap] = null;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != NO_KEY) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != NO_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        // MurmurHash3 finalizer, spreads sequential EANs across the table
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(int slot) {
+        return (V) values[slot];
+    }
+}
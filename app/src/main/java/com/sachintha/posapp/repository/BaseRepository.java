@@ -0,0 +1,76 @@
+package com.sachintha.posapp.repository;
+
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.sachintha.posapp.database.POSDatabase;
+import com.sachintha.posapp.utils.AppExecutors;
+
+import java.util.function.Supplier;
+
+/**
+ * Base class for repositories
+ * Runs DAO calls on the database executors and hands results back as LiveData
+ * A call that throws is logged and posts null, so the screen waiting on it can
+ * recover, e.g. enable its button again, instead of the executor thread dying.
+ */
+abstract class BaseRepository {
+
+    private static final String TAG = "Repository";
+
+    protected final POSDatabase database;
+    protected final AppExecutors executors;
+    // The reader pool as paging sources need it
+    protected final ListeningExecutorService pageReads;
+
+    BaseRepository(POSDatabase database, AppExecutors executors) {
+        this.database = database;
+        this.executors = executors;
+        this.pageReads = MoreExecutors.listeningDecorator(executors.reads());
+    }
+
+    /**
+     * Run a query on the reader pool, null if it failed
+     */
+    protected <T> LiveData<T> read(Supplier<T> query) {
+        MutableLiveData<T> result = new MutableLiveData<>();
+        executors.reads().execute(() -> result.postValue(run("Read", query)));
+        return result;
+    }
+
+    /**
+     * Run a query on the reader pool and post it to a LiveData the screen already observes
+     * Keeps the last value if the query failed
+     */
+    protected <T> void readInto(MutableLiveData<T> target, Supplier<T> query) {
+        executors.reads().execute(() -> {
+            T value = run("Read", query);
+            if (value != null) {
+                target.postValue(value);
+            }
+        });
+    }
+
+    /**
+     * Run a write on the writer thread, after every write queued before it, null if it failed
+     */
+    protected <T> LiveData<T> write(Supplier<T> command) {
+        MutableLiveData<T> result = new MutableLiveData<>();
+        executors.writes().execute(() -> result.postValue(run("Write", command)));
+        return result;
+    }
+
+    private static <T> T run(String kind, Supplier<T> call) {
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            // e.g. SQLiteFullException, or a constraint a check before the call missed
+            Log.e(TAG, kind + " failed", e);
+            return null;
+        }
+    }
+}
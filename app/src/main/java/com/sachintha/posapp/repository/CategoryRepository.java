@@ -0,0 +1,53 @@
+package com.sachintha.posapp.repository;
+
+import android.content.Context;
+
+import androidx.lifecycle.LiveData;
+
+import com.sachintha.posapp.database.POSDatabase;
+import com.sachintha.posapp.database.dao.CategoryDao;
+import com.sachintha.posapp.database.entity.Category;
+import com.sachintha.posapp.utils.AppExecutors;
+
+import java.util.List;
+
+/**
+ * Repository for product categories
+ */
+public class CategoryRepository extends BaseRepository {
+
+    private static CategoryRepository instance;
+
+    private final CategoryDao categoryDao;
+
+    private CategoryRepository(POSDatabase database, AppExecutors executors) {
+        super(database, executors);
+        categoryDao = database.categoryDao();
+    }
+
+    public static synchronized CategoryRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new CategoryRepository(POSDatabase.getInstance(context), AppExecutors.getInstance());
+        }
+        return instance;
+    }
+
+    public LiveData<List<Category>> getAllActiveCategories() {
+        return read(categoryDao::getAllActiveCategories);
+    }
+
+    public LiveData<List<Category>> getAllCategories() {
+        return read(categoryDao::getAllCategories);
+    }
+
+    public LiveData<Long> insert(Category category) {
+        return write(() -> categoryDao.insert(category));
+    }
+
+    public LiveData<Category> update(Category category) {
+        return write(() -> {
+            categoryDao.update(category);
+            return category;
+        });
+    }
+}
@@ -0,0 +1,54 @@
+package com.sachintha.posapp.repository;
+
+import com.sachintha.posapp.model.ProductFilter;
+import com.sachintha.posapp.utils.SearchKeys;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The last search of a paged list whose matches all fit on its first page
+ * Typing more letters only narrows a search, so the next search can be answered
+ * by filtering these products in memory rather than running FTS again.
+ * Forgotten whenever the products table changes.
+ */
+class LastSearch {
+
+    private ProductFilter filter; // guarded by this
+    private String key; // guarded by this
+    private List<Long> productIds; // guarded by this
+
+    /**
+     * Remember every product matching a search, in any order
+     */
+    synchronized void record(ProductFilter filter, List<Long> productIds) {
+        this.filter = filter;
+        this.key = SearchKeys.normalize(filter.getQuery());
+        this.productIds = productIds;
+    }
+
+    synchronized void clear() {
+        filter = null;
+        key = null;
+        productIds = null;
+    }
+
+    /**
+     * Products that can match the filter, or null if it does not extend the last search
+     * A search extends another when only its text differs and starts with the other's,
+     * e.g. "coca c" after "coca", so each of its words starts with one of the other's.
+     */
+    synchronized List<Long> candidatesFor(ProductFilter next) {
+        if (filter == null || !next.hasQuery()
+                || !Objects.equals(filter.getCategoryId(), next.getCategoryId())
+                || filter.getStock() != next.getStock()
+                || filter.isIncludeInactive() != next.isIncludeInactive()) {
+            return null;
+        }
+        String nextKey = SearchKeys.normalize(next.getQuery());
+        if (nextKey.length() <= key.length() || !nextKey.startsWith(key)) {
+            return null;
+        }
+        return productIds;
+    }
+}
@@ -0,0 +1,63 @@
+package com.sachintha.posapp.repository;
+
+import androidx.lifecycle.LiveData;
+import androidx.paging.Pager;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
+
+/**
+ * A paged list on a screen, loaded again whenever its filter changes
+ * Each load replaces the last one: the source of the replaced list is
+ * invalidated, so it stops observing its tables and its queued page reads
+ * are skipped, and sources its pager creates afterwards load nothing.
+ * Hold one per list and call {@link #load} from the UI thread.
+ */
+public final class PagedQuery<F, V> {
+
+    interface PagerFactory<F, V> {
+        /**
+         * A pager for the filter whose sources are passed through {@link #adopt} with the given ticket
+         */
+        Pager<?, V> create(F filter, PagedQuery<F, V> query, int ticket);
+    }
+
+    private final PagerFactory<F, V> factory;
+    private int ticket; // guarded by this
+    private TablePagingSource<?, V> latest; // guarded by this
+
+    PagedQuery(PagerFactory<F, V> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Pages of the items matching the filter, replacing the last load
+     */
+    public LiveData<PagingData<V>> load(F filter) {
+        TablePagingSource<?, V> replaced;
+        int current;
+        synchronized (this) {
+            current = ++ticket;
+            replaced = latest;
+            latest = null;
+        }
+        if (replaced != null) {
+            replaced.invalidate();
+        }
+        return PagingLiveData.getLiveData(factory.create(filter, this, current));
+    }
+
+    /**
+     * Track a source created for the load with the ticket
+     * A source of a replaced load is superseded straight away
+     */
+    <K> TablePagingSource<K, V> adopt(TablePagingSource<K, V> source, int sourceTicket) {
+        synchronized (this) {
+            if (sourceTicket == ticket) {
+                latest = source;
+                return source;
+            }
+        }
+        source.supersede();
+        return source;
+    }
+}
@@ -0,0 +1,279 @@
+package com.sachintha.posapp.repository;
+
+import android.content.Context;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.sachintha.posapp.database.POSDatabase;
+import com.sachintha.posapp.database.dao.ProductDao;
+import com.sachintha.posapp.database.dao.ProductVelocityDao;
+import com.sachintha.posapp.database.entity.Product;
+import com.sachintha.posapp.database.entity.ProductVelocity;
+import com.sachintha.posapp.utils.AppExecutors;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide cache of active products
+ * Gives O(1) lookup by ID and barcode for scans and the cart, product lists
+ * page from the database instead. Repositories call {@link #refresh} for the
+ * rows they write, so a sale only reloads the products it sold. Sales velocity scores are cached alongside
+ * to rank fuzzy matches and pick the top sellers. Loading and refreshing run
+ * on the writer thread, which keeps them in order with the writes that change the rows.
+ * Cached products are shared and must be treated as read-only.
+ */
+public class ProductCatalog {
+
+    private static final int ID_BATCH_SIZE = 500; // stays under SQLite's bind variable limit
+    private static final int TOP_SELLER_COUNT = 12;
+
+    private static ProductCatalog instance;
+
+    private final ProductDao productDao;
+    private final ProductVelocityDao velocityDao;
+    private final AppExecutors executors;
+
+    private final Map<Long, Product> byId = new ConcurrentHashMap<>();
+    private final BarcodeIndex<Product> byBarcode = new BarcodeIndex<>(); // guarded by itself
+    private final Map<Long, Double> velocity = new ConcurrentHashMap<>();
+    private final TrigramIndex trigrams = new TrigramIndex();
+    private final MutableLiveData<List<Product>> topSellers = new MutableLiveData<>();
+    private long velocityLandmark; // writer thread only
+    private volatile boolean loaded;
+    private boolean loadRequested;
+
+    private ProductCatalog(POSDatabase database, AppExecutors executors) {
+        this.productDao = database.productDao();
+        this.velocityDao = database.productVelocityDao();
+        this.executors = executors;
+        trigrams.setPopularity(product -> velocity.getOrDefault(product.getId(), 0.0));
+    }
+
+    public static synchronized ProductCatalog getInstance(Context context) {
+        if (instance == null) {
+            instance = new ProductCatalog(POSDatabase.getInstance(context), AppExecutors.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Fastest selling active products, best first
+     * Empty until something has been sold
+     */
+    public LiveData<List<Product>> getTopSellers() {
+        ensureLoaded();
+        return topSellers;
+    }
+
+    /**
+     * Queue the initial load if it has not been requested yet
+     */
+    public synchronized void ensureLoaded() {
+        if (!loadRequested) {
+            loadRequested = true;
+            executors.writes().execute(this::load);
+        }
+    }
+
+    /**
+     * Load now unless already requested, for warming the catalog at startup
+     * Must be called on the writer thread
+     */
+    public void preload() {
+        synchronized (this) {
+            if (loadRequested) {
+                return;
+            }
+            loadRequested = true;
+        }
+        load();
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Find an active product by ID, null if not cached
+     */
+    public Product findById(long id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Sales velocity score of a product, 0 if it has not sold
+     */
+    public double velocityOf(long productId) {
+        return velocity.getOrDefault(productId, 0.0);
+    }
+
+    /**
+     * Find an active product by barcode, null if not cached
+     * Numeric EAN/UPC codes are looked up without allocating
+     */
+    public Product findByBarcode(CharSequence barcode) {
+        synchronized (byBarcode) {
+            return byBarcode.get(barcode);
+        }
+    }
+
+    /**
+     * Find active products by barcode, keyed by barcode
+     * Codes not cached are left out
+     */
+    public Map<String, Product> findByBarcodes(Collection<String> barcodes) {
+        Map<String, Product> found = new HashMap<>();
+        synchronized (byBarcode) {
+            for (String barcode : barcodes) {
+                Product product = byBarcode.get(barcode);
+                if (product != null) {
+                    found.put(barcode, product);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Products whose name is close to the query, for when nothing matches as typed
+     * Best matches first, empty until the catalog is loaded
+     */
+    public List<Product> fuzzySearch(String query, int limit) {
+        return trigrams.search(query, limit);
+    }
+
+    private void load() {
+        List<Product> products = productDao.getAllActiveProducts();
+        loadVelocity();
+        byId.clear();
+        synchronized (byBarcode) {
+            byBarcode.clear();
+        }
+        for (Product product : products) {
+            index(product);
+        }
+        loaded = true;
+        publishTopSellers();
+
+        // Build the fuzzy index off the writer thread, later changes wait for it and apply on top
+        executors.reads().execute(() -> trigrams.rebuild(byId.values()));
+    }
+
+    /**
+     * Reload the given products from the database
+     * Must be called on the writer thread after the change is written
+     */
+    void refresh(Collection<Long> productIds) {
+        if (!loaded || productIds.isEmpty()) {
+            // A pending load will read the current rows anyway
+            return;
+        }
+
+        Map<Long, Product> fresh = new HashMap<>();
+        boolean rebased = false;
+        List<Long> ids = new ArrayList<>(productIds);
+        for (int start = 0; start < ids.size(); start += ID_BATCH_SIZE) {
+            List<Long> batch = ids.subList(start, Math.min(start + ID_BATCH_SIZE, ids.size()));
+            for (Product product : productDao.getProductsByIds(batch)) {
+                fresh.put(product.getId(), product);
+            }
+            for (ProductVelocity row : velocityDao.getByProductIds(batch)) {
+                velocity.put(row.getProductId(), row.getScore());
+                rebased |= row.getLandmark() != velocityLandmark;
+            }
+        }
+        if (rebased) {
+            // Every score moved to a new landmark, the cached ones are on the old scale
+            loadVelocity();
+        }
+
+        for (Long id : productIds) {
+            Product old = byId.get(id);
+            Product current = fresh.get(id);
+            if (current != null && !current.isActive()) {
+                current = null;
+            }
+
+            if (old != null) {
+                unindex(old);
+                trigrams.remove(old.getId());
+            }
+            if (current != null) {
+                index(current);
+                trigrams.add(current);
+            }
+        }
+        publishTopSellers();
+    }
+
+    private void loadVelocity() {
+        // Built aside and swapped in, so searches on the reader pool never see the map half filled
+        Map<Long, Double> scores = new HashMap<>();
+        for (ProductVelocity row : velocityDao.getAll()) {
+            scores.put(row.getProductId(), row.getScore());
+            velocityLandmark = row.getLandmark();
+        }
+        velocity.putAll(scores);
+        velocity.keySet().retainAll(scores.keySet());
+    }
+
+    private void index(Product product) {
+        byId.put(product.getId(), product);
+        if (product.getBarcode() != null) {
+            synchronized (byBarcode) {
+                byBarcode.put(product.getBarcode(), product);
+            }
+        }
+    }
+
+    private void unindex(Product product) {
+        byId.remove(product.getId());
+        if (product.getBarcode() != null) {
+            synchronized (byBarcode) {
+                byBarcode.remove(product.getBarcode(), product);
+            }
+        }
+    }
+
+    private void publishTopSellers() {
+        topSellers.postValue(pickTopSellers());
+    }
+
+    private List<Product> pickTopSellers() {
+        // Keep the best so far in a min-heap of the list's size, the weakest on top to be
+        // replaced, rather than sorting every score
+        PriorityQueue<Map.Entry<Long, Double>> best =
+                new PriorityQueue<>(TOP_SELLER_COUNT + 1, Map.Entry.comparingByValue());
+        for (Map.Entry<Long, Double> score : velocity.entrySet()) {
+            if (score.getValue() <= 0 || !byId.containsKey(score.getKey())) {
+                continue;
+            }
+            if (best.size() < TOP_SELLER_COUNT) {
+                best.add(score);
+            } else if (score.getValue() > best.peek().getValue()) {
+                best.poll();
+                best.add(score);
+            }
+        }
+
+        Product[] top = new Product[best.size()];
+        for (int i = top.length - 1; i >= 0; i--) {
+            top[i] = byId.get(best.poll().getKey());
+        }
+        List<Product> products = new ArrayList<>(top.length);
+        for (Product product : top) {
+            // Removed since the check above
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+}
@@ -0,0 +1,225 @@
+package com.sachintha.posapp.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.PagingState;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.sachintha.posapp.database.POSDatabase;
+import com.sachintha.posapp.database.dao.ProductDao;
+import com.sachintha.posapp.database.entity.Product;
+import com.sachintha.posapp.model.ProductFilter;
+
+import com.sachintha.posapp.utils.SearchKeys;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Offset paging over the products matching a filter, see {@link ProductDao#pageQuery}
+ * Name order and search ranking have no unique key to seek on, so pages are
+ * addressed by offset. When a search has no match as typed, the first page
+ * holds close spellings from the catalog instead, unless the filter includes
+ * inactive products, which the catalog does not hold. When the search only adds
+ * letters to the last one and that one fitted on its first page, the first
+ * page is filtered from those products in memory, see {@link LastSearch}.
+ * Items are whole products or one of their list projections, depending on the page loader.
+ */
+class ProductPagingSource<T> extends TablePagingSource<Integer, T> {
+
+    /**
+     * Reads one page of the products matching a filter, e.g. {@link ProductDao#getProductTilePage}
+     */
+    interface PageLoader<T> {
+        List<T> load(ProductFilter filter, int offset, int limit);
+    }
+
+    private final PageLoader<T> loader;
+    private final Function<Product, T> fromProduct;
+    private final ToLongFunction<T> idOf;
+    private final ProductCatalog catalog;
+    private final ProductFilter filter;
+    private final LastSearch lastSearch;
+    private final int fuzzyResults;
+
+    ProductPagingSource(POSDatabase database, PageLoader<T> loader, Function<Product, T> fromProduct,
+                        ToLongFunction<T> idOf, ProductCatalog catalog, ProductFilter filter,
+                        LastSearch lastSearch, int fuzzyResults, ListeningExecutorService executor) {
+        super(database, executor, "products");
+        this.loader = loader;
+        this.fromProduct = fromProduct;
+        this.idOf = idOf;
+        this.catalog = catalog;
+        this.filter = filter;
+        this.lastSearch = lastSearch;
+        this.fuzzyResults = fuzzyResults;
+    }
+
+    @Override
+    void onTablesChanged() {
+        // The remembered matches may be out of date
+        lastSearch.clear();
+    }
+
+    @Override
+    LoadResult<Integer, T> loadPage(LoadParams<Integer> params) {
+        int key = params.getKey() != null ? params.getKey() : 0;
+        int offset;
+        int limit;
+        if (params instanceof LoadParams.Prepend) {
+            // The page ending at key
+            offset = Math.max(0, key - params.getLoadSize());
+            limit = key - offset;
+        } else {
+            offset = key;
+            limit = params.getLoadSize();
+        }
+
+        boolean firstSearchPage = offset == 0 && filter.hasQuery() && params instanceof LoadParams.Refresh;
+        if (firstSearchPage) {
+            List<T> refined = refineLastSearch();
+            if (refined != null) {
+                return new LoadResult.Page<>(refined, null, null);
+            }
+        }
+
+        List<T> products = loader.load(filter, offset, limit);
+        // Probably a typo, e.g. "choclate". Suggestions from the catalog would leave out every
+        // inactive product, so a list that includes them just shows no match
+        if (products.isEmpty() && offset == 0 && filter.hasQuery() && !filter.isIncludeInactive()) {
+            lastSearch.clear();
+            return new LoadResult.Page<>(fuzzyMatches(), null, null);
+        }
+
+        Integer prevKey = offset > 0 ? offset : null;
+        Integer nextKey = products.size() < limit ? null : offset + products.size();
+        if (firstSearchPage) {
+            remember(products, nextKey == null);
+        }
+        return new LoadResult.Page<>(products, prevKey, nextKey);
+    }
+
+    /**
+     * Every match of the filter filtered from the last search's, in search order
+     * Null if that is not possible, or finds nothing so the database gets to suggest spellings
+     */
+    private List<T> refineLastSearch() {
+        // The catalog only holds active products
+        if (filter.isIncludeInactive() || !catalog.isLoaded()) {
+            return null;
+        }
+        List<Long> candidates = lastSearch.candidatesFor(filter);
+        if (candidates == null) {
+            return null;
+        }
+
+        List<String> tokens = SearchKeys.tokens(filter.getQuery());
+        List<Product> matches = new ArrayList<>();
+        for (Long id : candidates) {
+            Product product = catalog.findById(id);
+            if (product != null && filter.matches(product) && hasEveryWord(product, tokens)) {
+                matches.add(product);
+            }
+        }
+        if (matches.isEmpty()) {
+            return null;
+        }
+
+        // Same order as the database, see ProductDao#pageQuery
+        String trimmed = filter.getQuery().trim();
+        String key = SearchKeys.normalize(trimmed);
+        matches.sort(Comparator.<Product>comparingInt(product -> rank(product, trimmed, key))
+                .thenComparing(product -> catalog.velocityOf(product.getId()), Comparator.reverseOrder())
+                .thenComparing(Product::getName, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparingLong(Product::getId));
+
+        List<T> page = new ArrayList<>(matches.size());
+        List<Long> ids = new ArrayList<>(matches.size());
+        for (Product product : matches) {
+            page.add(fromProduct.apply(product));
+            ids.add(product.getId());
+        }
+        lastSearch.record(filter, ids);
+        return page;
+    }
+
+    private static boolean hasEveryWord(Product product, List<String> tokens) {
+        for (String token : tokens) {
+            if (!SearchKeys.hasWordStartingWith(product.getSearchKey(), token)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int rank(Product product, String barcode, String key) {
+        if (barcode.equals(product.getBarcode())) {
+            return 0;
+        }
+        String searchKey = product.getSearchKey();
+        return searchKey != null && searchKey.startsWith(key) ? 1 : 2;
+    }
+
+    /**
+     * Keep the matches of a search for narrowing it, if they all came in one page
+     */
+    private void remember(List<T> products, boolean complete) {
+        if (!complete) {
+            lastSearch.clear();
+            return;
+        }
+        List<Long> ids = new ArrayList<>(products.size());
+        for (T product : products) {
+            ids.add(idOf.applyAsLong(product));
+        }
+        lastSearch.record(filter, ids);
+    }
+
+    private List<T> fuzzyMatches() {
+        List<T> matches = new ArrayList<>();
+        for (Product product : catalog.fuzzySearch(filter.getQuery(), fuzzyResults)) {
+            if (filter.matches(product)) {
+                matches.add(fromProduct.apply(product));
+            }
+        }
+        return matches;
+    }
+
+    @Nullable
+    @Override
+    public Integer getRefreshKey(@NonNull PagingState<Integer, T> state) {
+        // Reload a window centred on what is on screen
+        Integer anchor = state.getAnchorPosition();
+        if (anchor == null) {
+            return null;
+        }
+        LoadResult.Page<Integer, T> page = state.closestPageToPosition(anchor);
+        if (page == null) {
+            return null;
+        }
+        // Without placeholders the anchor counts from the first page still loaded, which is
+        // not offset 0 once pages scrolled far away are dropped, so go through the page's own offset
+        int before = 0;
+        for (LoadResult.Page<Integer, T> loaded : state.getPages()) {
+            if (loaded == page) {
+                break;
+            }
+            before += loaded.getData().size();
+        }
+        int inPage = Math.max(0, Math.min(anchor - before, page.getData().size()));
+        return Math.max(0, pageOffset(page) + inPage - state.getConfig().initialLoadSize / 2);
+    }
+
+    /**
+     * Offset of the page's first product, see the keys set in {@link #loadPage}
+     */
+    private static <T> int pageOffset(LoadResult.Page<Integer, T> page) {
+        if (page.getPrevKey() != null) {
+            return page.getPrevKey();
+        }
+        return page.getNextKey() != null ? page.getNextKey() - page.getData().size() : 0;
+    }
+}
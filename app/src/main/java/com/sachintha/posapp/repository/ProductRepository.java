@@ -0,0 +1,186 @@
+package com.sachintha.posapp.repository;
+
+import android.content.Context;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+
+import com.sachintha.posapp.database.POSDatabase;
+import com.sachintha.posapp.database.dao.ProductDao;
+import com.sachintha.posapp.database.entity.Product;
+import com.sachintha.posapp.database.projection.InventoryRow;
+import com.sachintha.posapp.database.projection.ProductTile;
+import com.sachintha.posapp.database.projection.StockSummary;
+import com.sachintha.posapp.model.ProductFilter;
+import com.sachintha.posapp.utils.AppExecutors;
+import com.sachintha.posapp.utils.SearchKeys;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Repository for products and stock levels
+ */
+public class ProductRepository extends BaseRepository {
+
+    private static final int FUZZY_RESULTS = 20;
+    private static final int BARCODE_BATCH_SIZE = 500; // stays under SQLite's bind variable limit
+    private static final int PAGE_SIZE = 60;
+    private static final int MAX_LOADED = 300; // pages scrolled far away are dropped
+
+    private static ProductRepository instance;
+
+    private final ProductDao productDao;
+    private final ProductCatalog catalog;
+    private final MutableLiveData<StockSummary> stockSummary = new MutableLiveData<>();
+
+    private ProductRepository(POSDatabase database, AppExecutors executors, ProductCatalog catalog) {
+        super(database, executors);
+        productDao = database.productDao();
+        this.catalog = catalog;
+    }
+
+    public static synchronized ProductRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new ProductRepository(POSDatabase.getInstance(context), AppExecutors.getInstance(),
+                    ProductCatalog.getInstance(context));
+        }
+        return instance;
+    }
+
+    public LiveData<Product> getProductById(long id) {
+        return read(() -> productDao.getProductById(id));
+    }
+
+    /**
+     * Find an active product by barcode, emits null if not found
+     * Answered from the catalog once it is loaded
+     */
+    public LiveData<Product> getProductByBarcode(String barcode) {
+        if (catalog.isLoaded()) {
+            return new MutableLiveData<>(catalog.findByBarcode(barcode));
+        }
+        return read(() -> productDao.getProductByBarcode(barcode));
+    }
+
+    /**
+     * Find the active products for a batch of scanned barcodes in one lookup
+     * Emits them keyed by barcode, codes with no product are left out
+     */
+    public LiveData<Map<String, Product>> getProductsByBarcodes(Collection<String> barcodes) {
+        if (catalog.isLoaded()) {
+            return new MutableLiveData<>(catalog.findByBarcodes(barcodes));
+        }
+        List<String> codes = new ArrayList<>(barcodes);
+        return read(() -> {
+            Map<String, Product> found = new HashMap<>();
+            for (int start = 0; start < codes.size(); start += BARCODE_BATCH_SIZE) {
+                List<String> batch = codes.subList(start, Math.min(start + BARCODE_BATCH_SIZE, codes.size()));
+                for (Product product : productDao.getProductsByBarcodes(batch)) {
+                    found.put(product.getBarcode(), product);
+                }
+            }
+            return found;
+        });
+    }
+
+    /**
+     * A paged list of the products matching a filter, one per list on a screen
+     * See {@link ProductDao#pageQuery} for the order. A search with no match
+     * as typed lists active products with a close spelling instead, except
+     * for filters that include inactive products.
+     * The pages reload by themselves when products change
+     */
+    public PagedQuery<ProductFilter, Product> newProductPages() {
+        return pages(productDao::getProductPage, product -> product, Product::getId);
+    }
+
+    /**
+     * Like {@link #newProductPages}, with only the columns a product grid tile shows
+     */
+    public PagedQuery<ProductFilter, ProductTile> newProductTiles() {
+        return pages(productDao::getProductTilePage, ProductTile::of, ProductTile::getId);
+    }
+
+    /**
+     * Like {@link #newProductPages}, with only the columns an inventory row shows
+     */
+    public PagedQuery<ProductFilter, InventoryRow> newInventoryRows() {
+        return pages(productDao::getInventoryPage, InventoryRow::of, InventoryRow::getId);
+    }
+
+    private <T> PagedQuery<ProductFilter, T> pages(ProductPagingSource.PageLoader<T> loader,
+                                                   Function<Product, T> fromProduct,
+                                                   ToLongFunction<T> idOf) {
+        PagingConfig config = new PagingConfig(PAGE_SIZE, PAGE_SIZE, false, PAGE_SIZE * 2, MAX_LOADED);
+        LastSearch lastSearch = new LastSearch();
+        return new PagedQuery<>((filter, query, ticket) -> {
+            if (filter.hasQuery()) {
+                catalog.ensureLoaded();
+            }
+            ProductFilter snapshot = filter.copy();
+            return new Pager<>(config, () -> query.adopt(new ProductPagingSource<>(
+                    database, loader, fromProduct, idOf, catalog, snapshot, lastSearch, FUZZY_RESULTS, pageReads),
+                    ticket));
+        });
+    }
+
+    public LiveData<Integer> getActiveProductCount() {
+        return read(productDao::getActiveProductCount);
+    }
+
+    public LiveData<Integer> getLowStockCount() {
+        return read(productDao::getLowStockCount);
+    }
+
+    /**
+     * Stock counts for the inventory screen, the same LiveData on every call
+     * Reloaded by {@link #refreshStockSummary} and after every {@link #setStock}
+     */
+    public LiveData<StockSummary> getStockSummary() {
+        return stockSummary;
+    }
+
+    public void refreshStockSummary() {
+        readInto(stockSummary, productDao::getStockSummary);
+    }
+
+    public LiveData<Long> insert(Product product) {
+        product.setSearchKey(SearchKeys.forProduct(product));
+        return write(() -> {
+            long id = productDao.insert(product);
+            catalog.refresh(Collections.singletonList(id));
+            return id;
+        });
+    }
+
+    /**
+     * Set the stock of a product without touching the loaded entity
+     * The stock summary reloads once the change is written
+     */
+    public void setStock(long productId, int stock) {
+        write(() -> {
+            productDao.setStock(productId, stock);
+            catalog.refresh(Collections.singletonList(productId));
+            refreshStockSummary();
+            return null;
+        });
+    }
+
+    public LiveData<Product> update(Product product) {
+        product.setSearchKey(SearchKeys.forProduct(product));
+        return write(() -> {
+            productDao.update(product);
+            catalog.refresh(Collections.singletonList(product.getId()));
+            return product;
+        });
+    }
+}
@@ -0,0 +1,210 @@
+package com.sachintha.posapp.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+
+import com.sachintha.posapp.database.POSDatabase;
+import com.sachintha.posapp.database.dao.DailySalesSummaryDao;
+import com.sachintha.posapp.database.dao.ProductDao;
+import com.sachintha.posapp.database.dao.SaleDao;
+import com.sachintha.posapp.database.entity.DailySalesSummary;
+import com.sachintha.posapp.database.entity.Product;
+import com.sachintha.posapp.database.entity.Sale;
+import com.sachintha.posapp.database.entity.SaleItem;
+import com.sachintha.posapp.database.projection.SaleSummary;
+import com.sachintha.posapp.database.projection.SaleWithItems;
+import com.sachintha.posapp.model.SaleFilter;
+import com.sachintha.posapp.utils.AppExecutors;
+import com.sachintha.posapp.utils.Event;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Repository for sales, sale items and checkout
+ */
+public class SaleRepository extends BaseRepository {
+
+    private static final String TAG = "SaleRepository";
+    private static final int ID_BATCH_SIZE = 500; // stays under SQLite's bind variable limit
+    private static final int HISTORY_PAGE_SIZE = 40;
+    private static final int HISTORY_PREFETCH = 40;
+    private static final int HISTORY_MAX_SIZE = 240; // pages scrolled far away are dropped
+
+    private static SaleRepository instance;
+
+    private final SaleDao saleDao;
+    private final ProductDao productDao;
+    private final DailySalesSummaryDao summaryDao;
+    private final MutableLiveData<Event<List<Product>>> lowStockAlerts = new MutableLiveData<>();
+    private final ProductCatalog catalog;
+
+    private SaleRepository(POSDatabase database, AppExecutors executors, ProductCatalog catalog) {
+        super(database, executors);
+        this.catalog = catalog;
+        saleDao = database.saleDao();
+        productDao = database.productDao();
+        summaryDao = database.dailySalesSummaryDao();
+    }
+
+    public static synchronized SaleRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new SaleRepository(POSDatabase.getInstance(context), AppExecutors.getInstance(),
+                    ProductCatalog.getInstance(context));
+        }
+        return instance;
+    }
+
+    /**
+     * Save a sale with its items and take the sold quantities out of stock,
+     * all in one transaction. Emits the new sale ID once it is committed
+     * Only the sold products are refreshed in the catalog. Products the sale
+     * took to low stock are published on {@link #getLowStockAlerts}, merged
+     * with any earlier alert that no screen has shown yet. Emits null if the
+     * sale could not be saved
+     */
+    public LiveData<Long> completeSale(Sale sale, List<SaleItem> items) {
+        return write(() -> {
+            long saleId = saleDao.checkout(sale, items);
+            // The sale is committed from here, so a failure must not report it as not saved
+            try {
+                // Still on the writer thread, so no other stock change can come in between
+                List<Product> newlyLow = productDao.getProductsLowAfterSale(saleId);
+                if (!newlyLow.isEmpty()) {
+                    // postValue keeps only the last value, so a quick second sale would drop this alert
+                    executors.mainThread().execute(() -> publishLowStock(newlyLow));
+                }
+                Set<Long> productIds = new HashSet<>();
+                for (SaleItem item : items) {
+                    productIds.add(item.getProductId());
+                }
+                catalog.refresh(productIds);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Sale " + saleId + " saved, updating alerts and catalog failed", e);
+            }
+            return saleId;
+        });
+    }
+
+    /**
+     * Products that a sale has just taken to or below their minimum stock
+     */
+    public LiveData<Event<List<Product>>> getLowStockAlerts() {
+        return lowStockAlerts;
+    }
+
+    /**
+     * Publish an alert, adding to the last one if no screen has shown it yet
+     * Runs on the UI thread
+     */
+    private void publishLowStock(List<Product> newlyLow) {
+        Event<List<Product>> pending = lowStockAlerts.getValue();
+        if (pending == null || pending.hasBeenHandled()) {
+            lowStockAlerts.setValue(new Event<>(newlyLow));
+            return;
+        }
+        // Keyed by ID so a product in both keeps its latest stock
+        Map<Long, Product> merged = new LinkedHashMap<>();
+        for (Product product : pending.peekContent()) {
+            merged.put(product.getId(), product);
+        }
+        for (Product product : newlyLow) {
+            merged.put(product.getId(), product);
+        }
+        lowStockAlerts.setValue(new Event<>(new ArrayList<>(merged.values())));
+    }
+
+    public LiveData<Sale> getSaleById(long id) {
+        return read(() -> saleDao.getSaleById(id));
+    }
+
+    /**
+     * A sale with its items, emits null if there is no such sale
+     */
+    public LiveData<SaleWithItems> getSaleWithItems(long id) {
+        return read(() -> saleDao.getSaleWithItems(id));
+    }
+
+    /**
+     * Sales with their items, newest first, for export and reports
+     * Loads the items of each batch of sales in one query rather than one query per sale
+     */
+    public LiveData<List<SaleWithItems>> getSalesWithItems(List<Long> ids) {
+        return read(() -> {
+            if (ids.size() <= ID_BATCH_SIZE) {
+                return saleDao.getSalesWithItems(ids);
+            }
+            // One transaction for every batch, so a sale written in between cannot mix two states
+            return database.runInTransaction(() -> {
+                List<SaleWithItems> sales = new ArrayList<>(ids.size());
+                for (int start = 0; start < ids.size(); start += ID_BATCH_SIZE) {
+                    List<Long> batch = ids.subList(start, Math.min(start + ID_BATCH_SIZE, ids.size()));
+                    sales.addAll(saleDao.getSalesWithItems(batch));
+                }
+                // Each batch is sorted on its own
+                sales.sort(Comparator.comparing((SaleWithItems sale) -> sale.getSale().getSaleDate(),
+                        Comparator.nullsLast(Comparator.reverseOrder())));
+                return sales;
+            });
+        });
+    }
+
+    /**
+     * Sales from startDate (inclusive) up to endDate (exclusive) with their items, newest first
+     */
+    public LiveData<List<SaleWithItems>> getSalesWithItemsBetweenDates(Date startDate, Date endDate) {
+        return read(() -> saleDao.getSalesWithItemsBetweenDates(startDate, endDate));
+    }
+
+    /**
+     * A paged sales history, newest first, one per list on a screen
+     * The pages reload by themselves when a sale is added or changed
+     */
+    public PagedQuery<SaleFilter, SaleSummary> newSalesHistory() {
+        PagingConfig config = new PagingConfig(HISTORY_PAGE_SIZE, HISTORY_PREFETCH, false,
+                HISTORY_PAGE_SIZE, HISTORY_MAX_SIZE);
+        return new PagedQuery<>((filter, query, ticket) -> {
+            SaleFilter snapshot = filter.copy();
+            return new Pager<>(config,
+                    () -> query.adopt(new SalesHistorySource(database, snapshot, pageReads), ticket));
+        });
+    }
+
+    public LiveData<Long> getTotalSalesBetweenDates(Date startDate, Date endDate) {
+        return read(() -> saleDao.getTotalSalesBetweenDates(startDate, endDate));
+    }
+
+    public LiveData<Integer> getSalesCountBetweenDates(Date startDate, Date endDate) {
+        return read(() -> saleDao.getSalesCountBetweenDates(startDate, endDate));
+    }
+
+    /**
+     * Completed sales total for a local day, see {@link com.sachintha.posapp.utils.DateUtils#toDayKey}
+     * Read from the daily summary, so the cost does not grow with sales history
+     */
+    public LiveData<Long> getTotalForDay(int day) {
+        return read(() -> summaryDao.getTotalForDay(day));
+    }
+
+    public LiveData<Integer> getSalesCountForDay(int day) {
+        return read(() -> summaryDao.getSalesCountForDay(day));
+    }
+
+    /**
+     * Daily totals per cashier and payment method, both days inclusive
+     */
+    public LiveData<List<DailySalesSummary>> getDailySummaries(int fromDay, int toDay) {
+        return read(() -> summaryDao.getSummariesBetweenDays(fromDay, toDay));
+    }
+}
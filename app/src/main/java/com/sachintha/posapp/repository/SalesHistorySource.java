@@ -0,0 +1,92 @@
+package com.sachintha.posapp.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.PagingState;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.sachintha.posapp.database.POSDatabase;
+import com.sachintha.posapp.database.dao.SaleDao;
+import com.sachintha.posapp.database.projection.SaleSummary;
+import com.sachintha.posapp.model.SaleFilter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keyset paging over the sales history, newest first
+ * Pages are addressed by the (saleDate, id) of a sale instead of an offset,
+ * so each page is an index range read and costs the same however deep the
+ * user has scrolled.
+ */
+class SalesHistorySource extends TablePagingSource<SalesHistorySource.Position, SaleSummary> {
+
+    /**
+     * A sale's place in the history
+     */
+    static final class Position {
+        final long saleDate;
+        final long id;
+
+        Position(long saleDate, long id) {
+            this.saleDate = saleDate;
+            this.id = id;
+        }
+
+        static Position of(SaleSummary sale) {
+            return new Position(sale.getSaleDate().getTime(), sale.getId());
+        }
+    }
+
+    private final SaleDao saleDao;
+    private final SaleFilter filter;
+
+    SalesHistorySource(POSDatabase database, SaleFilter filter, ListeningExecutorService executor) {
+        super(database, executor, "sales");
+        this.saleDao = database.saleDao();
+        this.filter = filter;
+    }
+
+    @Override
+    LoadResult<Position, SaleSummary> loadPage(LoadParams<Position> params) {
+        Position key = params.getKey();
+        int limit = params.getLoadSize();
+        List<SaleSummary> sales;
+        Position prevKey;
+        Position nextKey;
+
+        if (params instanceof LoadParams.Prepend) {
+            sales = saleDao.getSalesAfter(filter, key.saleDate, key.id, limit);
+            prevKey = sales.size() < limit ? null : Position.of(sales.get(0));
+            nextKey = key;
+        } else if (params instanceof LoadParams.Append) {
+            sales = saleDao.getSalesBefore(filter, key.saleDate, key.id, limit);
+            prevKey = key;
+            nextKey = sales.size() < limit ? null : Position.of(sales.get(sales.size() - 1));
+        } else {
+            // Refresh: start at the anchored sale itself, or at the top
+            sales = key == null
+                    ? Collections.emptyList()
+                    : saleDao.getSalesBefore(filter, key.saleDate, key.id + 1, limit);
+            if (sales.isEmpty()) {
+                sales = saleDao.getNewestSales(filter, limit);
+                prevKey = null;
+            } else {
+                prevKey = Position.of(sales.get(0));
+            }
+            nextKey = sales.size() < limit ? null : Position.of(sales.get(sales.size() - 1));
+        }
+        return new LoadResult.Page<>(sales, prevKey, nextKey);
+    }
+
+    @Nullable
+    @Override
+    public Position getRefreshKey(@NonNull PagingState<Position, SaleSummary> state) {
+        Integer anchor = state.getAnchorPosition();
+        if (anchor == null) {
+            return null;
+        }
+        SaleSummary sale = state.closestItemToPosition(anchor);
+        return sale != null ? Position.of(sale) : null;
+    }
+}
@@ -0,0 +1,99 @@
+package com.sachintha.posapp.repository;
+
+import android.database.sqlite.SQLiteException;
+
+import androidx.annotation.NonNull;
+import androidx.paging.ListenableFuturePagingSource;
+import androidx.room.InvalidationTracker;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.sachintha.posapp.database.POSDatabase;
+
+import java.util.Collections;
+import java.util.Set;
+
+import kotlin.Unit;
+
+/**
+ * Paging source over database tables
+ * Loads pages on the given executor and invalidates itself when one of
+ * the tables changes, so the list reloads around the current position.
+ * The tables are observed from the first load until the source is invalidated.
+ */
+abstract class TablePagingSource<K, V> extends ListenableFuturePagingSource<K, V> {
+
+    private final POSDatabase database;
+    private final ListeningExecutorService executor;
+    private final InvalidationTracker.Observer observer;
+    private boolean observing; // guarded by observer
+    private volatile boolean superseded;
+
+    TablePagingSource(POSDatabase database, ListeningExecutorService executor, String table, String... tables) {
+        this.database = database;
+        this.executor = executor;
+        this.observer = new InvalidationTracker.Observer(table, tables) {
+            @Override
+            public void onInvalidated(@NonNull Set<String> changed) {
+                onTablesChanged();
+                invalidate();
+            }
+        };
+        registerInvalidatedCallback(() -> {
+            synchronized (observer) {
+                if (observing) {
+                    observing = false;
+                    database.getInvalidationTracker().removeObserver(observer);
+                }
+            }
+            return Unit.INSTANCE;
+        });
+    }
+
+    /**
+     * Load nothing from now on, for a source created for a list that has been replaced
+     * See {@link PagedQuery}
+     */
+    void supersede() {
+        superseded = true;
+    }
+
+    /**
+     * Called when one of the tables changes, just before the source invalidates itself
+     */
+    void onTablesChanged() {
+    }
+
+    /**
+     * Load one page, runs on the executor
+     */
+    abstract LoadResult<K, V> loadPage(LoadParams<K> params);
+
+    @NonNull
+    @Override
+    public ListenableFuture<LoadResult<K, V>> loadFuture(@NonNull LoadParams<K> params) {
+        return executor.submit(() -> {
+            if (superseded) {
+                return new LoadResult.Page<>(Collections.emptyList(), null, null);
+            }
+            if (getInvalid()) {
+                // Replaced while queued, e.g. by the next search
+                return new LoadResult.Invalid<>();
+            }
+            // Registering touches the database, so it happens here rather than on the caller's thread.
+            // Checked under the lock so a source invalidated meanwhile never registers
+            synchronized (observer) {
+                if (!observing && !getInvalid()) {
+                    observing = true;
+                    database.getInvalidationTracker().addObserver(observer);
+                }
+            }
+            try {
+                LoadResult<K, V> result = loadPage(params);
+                return getInvalid() ? new LoadResult.Invalid<>() : result;
+            } catch (SQLiteException e) {
+                return new LoadResult.Error<>(e);
+            }
+        });
+    }
+}
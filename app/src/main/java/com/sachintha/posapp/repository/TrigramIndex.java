@@ -0,0 +1,306 @@
+package com.sachintha.posapp.repository;
+
+import com.sachintha.posapp.database.entity.Product;
+import com.sachintha.posapp.utils.SearchKeys;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typo tolerant product name search
+ * Names are split into padded word trigrams ("coca" gives " co", "coc", "oca",
+ * "ca "). A query first collects the products sharing the most trigrams, then
+ * keeps those within a small edit distance of the start of some run of name
+ * words, so "cocacola" finds "Coca Cola" and "choclate" finds "Chocolate".
+ * Thread-safe, updated by {@link ProductCatalog} as products change.
+ */
+class TrigramIndex {
+
+    /**
+     * Popularity of a product, higher ranks first among equally close matches
+     */
+    interface Popularity {
+        double of(Product product);
+    }
+
+    private static final int MIN_QUERY_LENGTH = 3;
+    private static final int MAX_CANDIDATES = 200;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private Product[] products = new Product[256];
+    private String[][] words = new String[256][];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int slotCount;
+
+    // Per query scratch space, reused under the lock
+    private int[] shared = new int[256];
+    private int[] touched = new int[256];
+    private int[] row = new int[32];
+    private int[] previousRow = new int[32];
+
+    private Popularity popularity = product -> 0;
+
+    synchronized void setPopularity(Popularity popularity) {
+        this.popularity = popularity;
+    }
+
+    synchronized void add(Product product) {
+        remove(product.getId());
+        String[] nameWords = nameWords(product);
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : nextSlot();
+        products[slot] = product;
+        words[slot] = nameWords;
+        slotById.put(product.getId(), slot);
+        for (long gram : trigrams(nameWords)) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                list = new Postings();
+                postings.put(gram, list);
+            }
+            list.add(slot);
+        }
+    }
+
+    synchronized void remove(long productId) {
+        Integer slot = slotById.remove(productId);
+        if (slot == null) {
+            return;
+        }
+        for (long gram : trigrams(words[slot])) {
+            Postings list = postings.get(gram);
+            if (list != null && list.remove(slot) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+        products[slot] = null;
+        words[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Replace the whole index, holds the lock for the duration
+     */
+    synchronized void rebuild(Collection<Product> all) {
+        postings.clear();
+        slotById.clear();
+        Arrays.fill(products, null);
+        Arrays.fill(words, null);
+        freeCount = 0;
+        slotCount = 0;
+        for (Product product : all) {
+            add(product);
+        }
+    }
+
+    /**
+     * Up to limit products close to the query, best first
+     * Closer edit distance wins, then popularity, then trigram overlap
+     */
+    synchronized List<Product> search(String query, int limit) {
+        List<String> tokens = SearchKeys.tokens(query);
+        StringBuilder joined = new StringBuilder();
+        for (String token : tokens) {
+            joined.append(token);
+        }
+        String target = joined.toString();
+        List<Product> results = new ArrayList<>();
+        if (target.length() < MIN_QUERY_LENGTH || limit <= 0) {
+            return results;
+        }
+        int maxDistance = target.length() >= 8 ? 2 : 1;
+
+        // Count shared trigrams per product
+        long[] grams = trigrams(tokens.toArray(new String[0]));
+        int touchedCount = 0;
+        int best = 0;
+        for (long gram : grams) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                continue;
+            }
+            for (int i = 0; i < list.size; i++) {
+                int slot = list.slots[i];
+                if (shared[slot]++ == 0) {
+                    touched[touchedCount++] = slot;
+                }
+                best = Math.max(best, shared[slot]);
+            }
+        }
+
+        // Verify only the products sharing the most trigrams, and at least a third of the query's
+        int[] histogram = new int[best + 1];
+        for (int i = 0; i < touchedCount; i++) {
+            histogram[shared[touched[i]]]++;
+        }
+        int cutoff = best;
+        int candidates = histogram[best];
+        int minShared = Math.max(1, (grams.length + 2) / 3);
+        while (cutoff > minShared && candidates + histogram[cutoff - 1] <= MAX_CANDIDATES) {
+            cutoff--;
+            candidates += histogram[cutoff];
+        }
+
+        List<Match> matches = new ArrayList<>();
+        candidates = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int slot = touched[i];
+            int count = shared[slot];
+            shared[slot] = 0;
+            if (count < cutoff || count < minShared || candidates == MAX_CANDIDATES) {
+                continue;
+            }
+            candidates++;
+            int distance = prefixDistance(target, words[slot], maxDistance);
+            if (distance <= maxDistance) {
+                Product product = products[slot];
+                matches.add(new Match(product, distance, popularity.of(product), count));
+            }
+        }
+
+        matches.sort((a, b) -> {
+            if (a.distance != b.distance) return Integer.compare(a.distance, b.distance);
+            if (a.popularity != b.popularity) return Double.compare(b.popularity, a.popularity);
+            return Integer.compare(b.shared, a.shared);
+        });
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            results.add(matches.get(i).product);
+        }
+        return results;
+    }
+
+    /**
+     * Smallest edit distance between the target and the start of any run of
+     * consecutive name words joined without spaces, or maxDistance + 1
+     */
+    private int prefixDistance(String target, String[] nameWords, int maxDistance) {
+        int bestDistance = maxDistance + 1;
+        int maxLength = target.length() + maxDistance;
+        ensureRows(maxLength + 1);
+        for (int start = 0; start < nameWords.length && bestDistance > 0; start++) {
+            // Row 0: distance from the empty text prefix to each target prefix
+            for (int j = 0; j <= target.length(); j++) {
+                previousRow[j] = j;
+            }
+            int textLength = 0;
+            for (int w = start; w < nameWords.length && textLength < maxLength; w++) {
+                String word = nameWords[w];
+                for (int k = 0; k < word.length() && textLength < maxLength; k++, textLength++) {
+                    char c = word.charAt(k);
+                    row[0] = textLength + 1;
+                    int rowMin = row[0];
+                    for (int j = 1; j <= target.length(); j++) {
+                        int cost = target.charAt(j - 1) == c ? 0 : 1;
+                        row[j] = Math.min(Math.min(row[j - 1] + 1, previousRow[j] + 1), previousRow[j - 1] + cost);
+                        rowMin = Math.min(rowMin, row[j]);
+                    }
+                    int[] swap = previousRow;
+                    previousRow = row;
+                    row = swap;
+                    // Whole target against this text prefix
+                    bestDistance = Math.min(bestDistance, previousRow[target.length()]);
+                    if (rowMin > maxDistance) {
+                        // No longer text prefix can get back under the bound
+                        textLength = maxLength;
+                    }
+                }
+            }
+        }
+        return bestDistance;
+    }
+
+    private void ensureRows(int size) {
+        if (row.length < size) {
+            row = new int[size];
+            previousRow = new int[size];
+        }
+    }
+
+    private int nextSlot() {
+        if (slotCount == products.length) {
+            int capacity = slotCount * 2;
+            products = Arrays.copyOf(products, capacity);
+            words = Arrays.copyOf(words, capacity);
+            shared = Arrays.copyOf(shared, capacity);
+            touched = Arrays.copyOf(touched, capacity);
+        }
+        return slotCount++;
+    }
+
+    private static String[] nameWords(Product product) {
+        return SearchKeys.tokens(product.getName() != null ? product.getName() : "").toArray(new String[0]);
+    }
+
+    /**
+     * Distinct padded trigrams of the words, packed three chars to a long
+     */
+    private static long[] trigrams(String[] words) {
+        long[] grams = new long[16];
+        int count = 0;
+        for (String word : words) {
+            int length = word.length() + 2;
+            for (int i = 0; i + 3 <= length; i++) {
+                long gram = ((long) padded(word, i) << 32) | ((long) padded(word, i + 1) << 16) | padded(word, i + 2);
+                boolean seen = false;
+                for (int k = 0; k < count && !seen; k++) {
+                    seen = grams[k] == gram;
+                }
+                if (!seen) {
+                    if (count == grams.length) {
+                        grams = Arrays.copyOf(grams, count * 2);
+                    }
+                    grams[count++] = gram;
+                }
+            }
+        }
+        return Arrays.copyOf(grams, count);
+    }
+
+    private static char padded(String word, int index) {
+        return index == 0 || index == word.length() + 1 ? ' ' : word.charAt(index - 1);
+    }
+
+    private static final class Postings {
+        int[] slots = new int[4];
+        int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        boolean remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    slots[i] = slots[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Match {
+        final Product product;
+        final int distance;
+        final double popularity;
+        final int shared;
+
+        Match(Product product, int distance, double popularity, int shared) {
+            this.product = product;
+            this.distance = distance;
+            this.popularity = popularity;
+            this.shared = shared;
+        }
+    }
+}
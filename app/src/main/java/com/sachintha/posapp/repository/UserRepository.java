@@ -0,0 +1,60 @@
+package com.sachintha.posapp.repository;
+
+import android.content.Context;
+
+import androidx.lifecycle.LiveData;
+
+import com.sachintha.posapp.database.POSDatabase;
+import com.sachintha.posapp.database.dao.UserDao;
+import com.sachintha.posapp.database.entity.User;
+import com.sachintha.posapp.utils.AppExecutors;
+
+import java.util.List;
+
+/**
+ * Repository for user accounts and authentication
+ */
+public class UserRepository extends BaseRepository {
+
+    private static UserRepository instance;
+
+    private final UserDao userDao;
+
+    private UserRepository(POSDatabase database, AppExecutors executors) {
+        super(database, executors);
+        userDao = database.userDao();
+    }
+
+    public static synchronized UserRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new UserRepository(POSDatabase.getInstance(context), AppExecutors.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Authenticate user, emits null if the credentials are invalid
+     */
+    public LiveData<User> authenticate(String username, String password) {
+        return read(() -> userDao.authenticate(username, password));
+    }
+
+    public LiveData<User> getUserById(long id) {
+        return read(() -> userDao.getUserById(id));
+    }
+
+    public LiveData<List<User>> getAllActiveUsers() {
+        return read(userDao::getAllActiveUsers);
+    }
+
+    public LiveData<Long> insert(User user) {
+        return write(() -> userDao.insert(user));
+    }
+
+    public LiveData<User> update(User user) {
+        return write(() -> {
+            userDao.update(user);
+            return user;
+        });
+    }
+}
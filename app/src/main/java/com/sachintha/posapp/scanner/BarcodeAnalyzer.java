@@ -0,0 +1,140 @@
+package com.sachintha.posapp.scanner;
+
+import android.graphics.Bitmap;
+import android.media.Image;
+import android.os.SystemClock;
+import android.util.Size;
+
+import androidx.annotation.NonNull;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
+
+import com.google.mlkit.vision.barcode.BarcodeScanner;
+import com.google.mlkit.vision.barcode.BarcodeScanning;
+import com.google.mlkit.vision.barcode.common.Barcode;
+import com.google.mlkit.vision.common.InputImage;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Camera frame analyzer shared by the scanners
+ * Each frame is throttled, cropped to the scan region and decoded with the
+ * formats of the {@link ScanProfile}, then found codes go to the listener on
+ * the UI thread. Frames are skipped after each decode for as long as keeps the
+ * detector within the profile's duty cycle, based on its recent decode times.
+ * Every stage is timed into {@link #getStats}.
+ */
+public class BarcodeAnalyzer implements ImageAnalysis.Analyzer {
+
+    public interface OnBarcodesListener {
+        void onBarcodes(List<Barcode> barcodes);
+    }
+
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final ScanProfile profile;
+    private final OnBarcodesListener listener;
+    private final BarcodeScanner barcodeScanner;
+    private final FrameCropper cropper = new FrameCropper();
+    private final ScanStats stats = new ScanStats();
+
+    private volatile boolean enabled = true;
+    private volatile long nextFrameAt; // elapsedRealtimeNanos
+    private double averageDetectNanos; // UI thread only
+
+    public BarcodeAnalyzer(ScanProfile profile, OnBarcodesListener listener) {
+        this.profile = profile;
+        this.listener = listener;
+        barcodeScanner = BarcodeScanning.getClient(profile.toScannerOptions());
+        // The detector loads on its first image, give it a blank one now rather than the first real frame
+        barcodeScanner.process(InputImage.fromBitmap(Bitmap.createBitmap(32, 32, Bitmap.Config.ARGB_8888), 0));
+    }
+
+    /**
+     * An analysis use case at the profile's resolution that feeds this analyzer
+     */
+    public ImageAnalysis createUseCase(Executor executor) {
+        ImageAnalysis imageAnalysis = new ImageAnalysis.Builder()
+                .setTargetResolution(new Size(profile.getAnalysisWidth(), profile.getAnalysisHeight()))
+                .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
+                .build();
+        imageAnalysis.setAnalyzer(executor, this);
+        return imageAnalysis;
+    }
+
+    /**
+     * Frames are dropped unread while disabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public ScanStats getStats() {
+        return stats;
+    }
+
+    public void close() {
+        enabled = false;
+        barcodeScanner.close();
+    }
+
+    @Override
+    public void analyze(@NonNull ImageProxy imageProxy) {
+        long start = SystemClock.elapsedRealtimeNanos();
+        if (!enabled || start < nextFrameAt) {
+            if (enabled) {
+                stats.frameSkipped();
+            }
+            imageProxy.close();
+            return;
+        }
+
+        int rotation = imageProxy.getImageInfo().getRotationDegrees();
+        InputImage image;
+        if (profile.getRegionWidth() >= 1f && profile.getRegionHeight() >= 1f) {
+            @SuppressWarnings("UnsafeOptInUsageError")
+            Image mediaImage = imageProxy.getImage();
+            if (mediaImage == null) {
+                imageProxy.close();
+                return;
+            }
+            image = InputImage.fromMediaImage(mediaImage, rotation);
+        } else {
+            byte[] nv21 = cropper.crop(imageProxy, profile.getRegionWidth(), profile.getRegionHeight());
+            image = InputImage.fromByteArray(nv21, cropper.getWidth(), cropper.getHeight(),
+                    rotation, InputImage.IMAGE_FORMAT_NV21);
+        }
+        long cropped = SystemClock.elapsedRealtimeNanos();
+        stats.record(ScanStats.Stage.CROP, cropped - start);
+        stats.frameAnalyzed();
+
+        // Listeners run on the UI thread, so detect time includes the hand over to it
+        barcodeScanner.process(image).addOnCompleteListener(task -> {
+            long detected = SystemClock.elapsedRealtimeNanos();
+            stats.record(ScanStats.Stage.DETECT, detected - cropped);
+            throttle(detected - cropped, detected);
+            // Let the next frame in before the screen handles this one
+            imageProxy.close();
+            if (task.isSuccessful() && enabled && !task.getResult().isEmpty()) {
+                listener.onBarcodes(task.getResult());
+                long delivered = SystemClock.elapsedRealtimeNanos();
+                stats.record(ScanStats.Stage.DELIVER, delivered - detected);
+                stats.record(ScanStats.Stage.TOTAL, delivered - start);
+                stats.scanDelivered();
+            }
+        });
+    }
+
+    private void throttle(long detectNanos, long now) {
+        averageDetectNanos = averageDetectNanos == 0 ? detectNanos
+                : averageDetectNanos + LATENCY_SMOOTHING * (detectNanos - averageDetectNanos);
+        float dutyCycle = profile.getDutyCycle();
+        if (dutyCycle >= 1f) {
+            nextFrameAt = 0;
+        } else {
+            // Idle long enough that busy / (busy + idle) stays under the duty cycle
+            nextFrameAt = now + (long) (averageDetectNanos * (1 - dutyCycle) / dutyCycle);
+        }
+    }
+}
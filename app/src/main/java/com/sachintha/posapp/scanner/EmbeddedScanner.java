@@ -0,0 +1,153 @@
+package com.sachintha.posapp.scanner;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.camera.core.CameraSelector;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.Preview;
+import androidx.camera.lifecycle.ProcessCameraProvider;
+import androidx.camera.view.PreviewView;
+import androidx.core.content.ContextCompat;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.mlkit.vision.barcode.common.Barcode;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Camera barcode scanner embedded in a screen, for scanning item after item
+ * The camera provider, the preview and analysis use cases and the ML Kit client
+ * are created once and live as long as the owner, so starting and stopping only
+ * opens and closes the camera. While started every new code in view is reported,
+ * repeat reads of a code still in view are dropped by a {@link ScanDeduper}.
+ * Frames are analyzed as the store's {@link ScanProfile} says.
+ * Call from the UI thread, results are delivered on it.
+ */
+public class EmbeddedScanner implements DefaultLifecycleObserver {
+
+    public interface OnScanListener {
+        void onScan(String barcode);
+    }
+
+    private static final long DEDUPE_WINDOW_MS = 1500;
+
+    private final Context context;
+    private final LifecycleOwner owner;
+    private final OnScanListener listener;
+    private final ExecutorService analysisExecutor = Executors.newSingleThreadExecutor();
+    private final BarcodeAnalyzer analyzer;
+    private final ScanDeduper deduper = new ScanDeduper(DEDUPE_WINDOW_MS);
+    private final Preview preview;
+    private final ImageAnalysis imageAnalysis;
+
+    private ProcessCameraProvider cameraProvider;
+    private boolean running;
+
+    public EmbeddedScanner(Context context, LifecycleOwner owner, PreviewView previewView, OnScanListener listener) {
+        this.context = context;
+        this.owner = owner;
+        this.listener = listener;
+
+        analyzer = new BarcodeAnalyzer(ScanProfile.forStore(context), this::onBarcodes);
+        analyzer.setEnabled(false);
+
+        preview = new Preview.Builder().build();
+        preview.setSurfaceProvider(previewView.getSurfaceProvider());
+        imageAnalysis = analyzer.createUseCase(analysisExecutor);
+
+        owner.getLifecycle().addObserver(this);
+        ListenableFuture<ProcessCameraProvider> providerFuture = ProcessCameraProvider.getInstance(context);
+        providerFuture.addListener(() -> {
+            try {
+                cameraProvider = providerFuture.get();
+                if (running) {
+                    bind();
+                }
+            } catch (ExecutionException | InterruptedException e) {
+                running = false;
+                analyzer.setEnabled(false);
+                Toast.makeText(context, "Error starting camera: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+            }
+        }, ContextCompat.getMainExecutor(context));
+    }
+
+    /**
+     * Open the camera and report codes until {@link #stop}
+     * The owner's lifecycle still closes the camera while it is stopped
+     */
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        deduper.clear();
+        analyzer.setEnabled(true);
+        if (cameraProvider != null) {
+            bind();
+        }
+    }
+
+    /**
+     * Close the camera, keeping everything else ready for the next start
+     */
+    public void stop() {
+        running = false;
+        analyzer.setEnabled(false);
+        if (cameraProvider != null) {
+            cameraProvider.unbind(preview, imageAnalysis);
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Timings of the frames analyzed so far
+     */
+    public ScanStats getStats() {
+        return analyzer.getStats();
+    }
+
+    private void bind() {
+        CameraSelector cameraSelector = new CameraSelector.Builder()
+                .requireLensFacing(CameraSelector.LENS_FACING_BACK)
+                .build();
+        try {
+            cameraProvider.bindToLifecycle(owner, cameraSelector, preview, imageAnalysis);
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            running = false;
+            analyzer.setEnabled(false);
+            Toast.makeText(context, "Error binding camera: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    private void onBarcodes(List<Barcode> barcodes) {
+        if (!running) {
+            return;
+        }
+        long now = SystemClock.elapsedRealtime();
+        for (Barcode barcode : barcodes) {
+            String value = barcode.getRawValue();
+            if (value != null && !value.isEmpty() && deduper.accept(value, now)) {
+                listener.onScan(value);
+            }
+        }
+    }
+
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        running = false;
+        imageAnalysis.clearAnalyzer();
+        analysisExecutor.shutdown();
+        analyzer.close();
+    }
+}
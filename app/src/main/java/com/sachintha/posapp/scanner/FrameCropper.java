@@ -0,0 +1,78 @@
+package com.sachintha.posapp.scanner;
+
+import androidx.camera.core.ImageProxy;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Copies the centre region of a YUV_420_888 camera frame into an NV21 buffer
+ * The detector then only searches the part of the frame inside the scan frame.
+ * The buffer is reused, so a crop must not be started before the detector is
+ * done with the previous one; the analyzer gets no new frame until it closes
+ * the current one, which keeps that true.
+ */
+class FrameCropper {
+
+    private byte[] nv21 = new byte[0];
+    private int width;
+    private int height;
+
+    /**
+     * Crop the frame to the given fractions of its upright size
+     * Returns the NV21 bytes, valid until the next call
+     */
+    byte[] crop(ImageProxy image, float regionWidth, float regionHeight) {
+        int rotation = image.getImageInfo().getRotationDegrees();
+        // The frame is in sensor orientation, swap the fractions when it is shown sideways
+        boolean sideways = rotation == 90 || rotation == 270;
+        float fractionX = sideways ? regionHeight : regionWidth;
+        float fractionY = sideways ? regionWidth : regionHeight;
+
+        // Chroma is subsampled 2x2, so the region starts and ends on even pixels
+        width = even(image.getWidth() * fractionX);
+        height = even(image.getHeight() * fractionY);
+        int left = even((image.getWidth() - width) / 2f);
+        int top = even((image.getHeight() - height) / 2f);
+
+        int size = width * height * 3 / 2;
+        if (nv21.length < size) {
+            nv21 = new byte[size];
+        }
+
+        ImageProxy.PlaneProxy[] planes = image.getPlanes();
+        ByteBuffer yBuffer = planes[0].getBuffer();
+        int yRowStride = planes[0].getRowStride();
+        for (int row = 0; row < height; row++) {
+            // Luma pixels are always adjacent
+            yBuffer.position((top + row) * yRowStride + left);
+            yBuffer.get(nv21, row * width, width);
+        }
+
+        ByteBuffer uBuffer = planes[1].getBuffer();
+        ByteBuffer vBuffer = planes[2].getBuffer();
+        int uvRowStride = planes[1].getRowStride();
+        int uvPixelStride = planes[1].getPixelStride();
+        int out = width * height;
+        for (int row = 0; row < height / 2; row++) {
+            int rowStart = (top / 2 + row) * uvRowStride + (left / 2) * uvPixelStride;
+            for (int col = 0; col < width / 2; col++) {
+                int index = rowStart + col * uvPixelStride;
+                nv21[out++] = vBuffer.get(index);
+                nv21[out++] = uBuffer.get(index);
+            }
+        }
+        return nv21;
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    private static int even(float value) {
+        return ((int) value) & ~1;
+    }
+}
@@ -0,0 +1,78 @@
+package com.sachintha.posapp.scanner;
+
+/**
+ * Timing of the keys held by {@link KeyboardWedgeReader}
+ * Tells a scanner's burst of keys from typing. Times are event times, in the
+ * {@code SystemClock.uptimeMillis()} base, so this is plain Java and testable off the device.
+ */
+class KeyBurst {
+
+    // Scanners type a key every few ms over USB, Bluetooth ones up to ~30 ms
+    static final long MAX_KEY_GAP_MS = 50;
+    // Held keys are handed back once no key follows for this long
+    static final long HOLD_MS = 2 * MAX_KEY_GAP_MS;
+    static final int MIN_LENGTH = 4;
+    static final int MAX_LENGTH = 64;
+
+    private final StringBuilder code = new StringBuilder(MAX_LENGTH);
+    private int keys;
+    private long lastKeyTime;
+
+    boolean isEmpty() {
+        return keys == 0;
+    }
+
+    /**
+     * True if a key at this time comes close enough behind the last to be part of the burst
+     */
+    boolean inTime(long eventTime) {
+        return keys > 0 && eventTime - lastKeyTime <= MAX_KEY_GAP_MS;
+    }
+
+    boolean isFull() {
+        return code.length() >= MAX_LENGTH;
+    }
+
+    /**
+     * Add a key pressed at the time
+     * @param unicode the character typed, 0 for a key like Shift that types none
+     */
+    void add(long eventTime, int unicode) {
+        keys++;
+        if (unicode != 0) {
+            code.append((char) unicode);
+        }
+        lastKeyTime = eventTime;
+    }
+
+    /**
+     * True if Enter at this time ends a scan
+     */
+    boolean endsScan(long enterTime) {
+        return inTime(enterTime) && code.length() >= MIN_LENGTH;
+    }
+
+    /**
+     * The characters so far, only valid until the next change
+     */
+    CharSequence code() {
+        return code;
+    }
+
+    /**
+     * How much longer the keys are held at the time, 0 once they should be handed back
+     * Measured from the last key's event time rather than from when a timer was set,
+     * so a timer that fires while keys are still coming can wait out the rest.
+     */
+    long holdRemaining(long now) {
+        if (keys == 0) {
+            return 0;
+        }
+        return Math.max(0, lastKeyTime + HOLD_MS - now);
+    }
+
+    void clear() {
+        keys = 0;
+        code.setLength(0);
+    }
+}
@@ -0,0 +1,169 @@
+package com.sachintha.posapp.scanner;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.KeyCharacterMap;
+import android.view.KeyEvent;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads codes from a USB or Bluetooth scanner that types them as keystrokes
+ * A scanner types the whole code followed by Enter far faster than anyone
+ * types, so keys are held back until it is clear what they are: a run of
+ * characters with every key close behind the last, ended by Enter, is a scan
+ * and goes to the listener without reaching any view. Anything else is handed
+ * back in order once a key comes too late, so typing works as before, the
+ * first key of each word just shows a moment later.
+ * Gaps are measured on the event times, so a busy UI thread delaying the
+ * events does not split a scan, see {@link KeyBurst}. Call from the UI thread.
+ */
+public class KeyboardWedgeReader implements DefaultLifecycleObserver {
+
+    public interface OnCodeListener {
+        /**
+         * @param code the scanned characters, only valid until this returns
+         */
+        void onCode(CharSequence code);
+    }
+
+    public interface KeySink {
+        boolean dispatch(KeyEvent event);
+    }
+
+    private final OnCodeListener listener;
+    private final KeySink passThrough;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable holdExpired = this::onHoldExpired;
+    private final List<KeyEvent> held = new ArrayList<>();
+    private final KeyBurst burst = new KeyBurst();
+
+    private boolean timerSet;
+    private boolean swallowEnterUp;
+
+    /**
+     * @param passThrough where keys that turn out not to be a scan go, e.g. the activity's super.dispatchKeyEvent
+     */
+    public KeyboardWedgeReader(LifecycleOwner owner, OnCodeListener listener, KeySink passThrough) {
+        this.listener = listener;
+        this.passThrough = passThrough;
+        owner.getLifecycle().addObserver(this);
+    }
+
+    /**
+     * Offer a key event, true if it was taken
+     * Events not taken should be dispatched as usual.
+     */
+    public boolean onKeyEvent(KeyEvent event) {
+        // On-screen keyboards never scan
+        if (event.getDeviceId() == KeyCharacterMap.VIRTUAL_KEYBOARD) {
+            release();
+            return false;
+        }
+        boolean enter = event.getKeyCode() == KeyEvent.KEYCODE_ENTER
+                || event.getKeyCode() == KeyEvent.KEYCODE_NUMPAD_ENTER;
+
+        if (event.getAction() == KeyEvent.ACTION_UP) {
+            if (enter && swallowEnterUp) {
+                swallowEnterUp = false;
+                return true;
+            }
+            if (held.isEmpty()) {
+                return false;
+            }
+            // Keep each release with its press so they are handed back together
+            held.add(new KeyEvent(event));
+            return true;
+        }
+        if (event.getAction() != KeyEvent.ACTION_DOWN) {
+            release();
+            return false;
+        }
+
+        if (enter) {
+            if (burst.endsScan(event.getEventTime())) {
+                cancelTimer();
+                held.clear();
+                swallowEnterUp = true;
+                try {
+                    listener.onCode(burst.code());
+                } finally {
+                    burst.clear();
+                }
+                return true;
+            }
+            release();
+            return false;
+        }
+
+        // Scanners press Shift for upper case letters like a keyboard does
+        boolean shift = event.getKeyCode() == KeyEvent.KEYCODE_SHIFT_LEFT
+                || event.getKeyCode() == KeyEvent.KEYCODE_SHIFT_RIGHT;
+        int unicode = event.getUnicodeChar();
+        boolean printable = unicode != 0 && !Character.isISOControl(unicode)
+                && !event.isCtrlPressed() && !event.isAltPressed();
+        if (event.getRepeatCount() > 0 || !(shift || printable)) {
+            release();
+            return false;
+        }
+        if (!burst.inTime(event.getEventTime()) || burst.isFull()) {
+            release();
+        }
+        held.add(new KeyEvent(event));
+        burst.add(event.getEventTime(), printable ? unicode : 0);
+        // One timer per burst, rather than one per key, it re-arms itself while keys keep coming
+        if (!timerSet) {
+            timerSet = true;
+            mainHandler.postDelayed(holdExpired, KeyBurst.HOLD_MS);
+        }
+        return true;
+    }
+
+    private void onHoldExpired() {
+        timerSet = false;
+        long remaining = burst.holdRemaining(SystemClock.uptimeMillis());
+        if (remaining > 0) {
+            timerSet = true;
+            mainHandler.postDelayed(holdExpired, remaining);
+            return;
+        }
+        release();
+    }
+
+    private void cancelTimer() {
+        if (timerSet) {
+            timerSet = false;
+            mainHandler.removeCallbacks(holdExpired);
+        }
+    }
+
+    /**
+     * Hand back the held keys in the order they came
+     */
+    private void release() {
+        cancelTimer();
+        burst.clear();
+        if (held.isEmpty()) {
+            return;
+        }
+        KeyEvent[] events = held.toArray(new KeyEvent[0]);
+        held.clear();
+        for (KeyEvent event : events) {
+            passThrough.dispatch(event);
+        }
+    }
+
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        cancelTimer();
+        held.clear();
+        burst.clear();
+        owner.getLifecycle().removeObserver(this);
+    }
+}
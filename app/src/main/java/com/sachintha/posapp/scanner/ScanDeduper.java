@@ -0,0 +1,49 @@
+package com.sachintha.posapp.scanner;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Drops repeat reads of the same barcode
+ * The camera reads a code on every frame it is in view, so a code is only
+ * accepted again once it has been out of view for the whole window. An item
+ * held under the camera counts once, while a second unit of the same product
+ * counts again after a short pause. Not thread safe, call from one thread.
+ */
+public class ScanDeduper {
+
+    private static final int PRUNE_SIZE = 64;
+
+    private final long windowMs;
+    private final Map<String, Long> lastSeen = new HashMap<>();
+
+    public ScanDeduper(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * Record a read of the code, true if it should be handled
+     * @param nowMs a monotonic clock, e.g. SystemClock.elapsedRealtime()
+     */
+    public boolean accept(String code, long nowMs) {
+        Long previous = lastSeen.put(code, nowMs);
+        if (lastSeen.size() > PRUNE_SIZE) {
+            prune(nowMs);
+        }
+        return previous == null || nowMs - previous >= windowMs;
+    }
+
+    public void clear() {
+        lastSeen.clear();
+    }
+
+    private void prune(long nowMs) {
+        Iterator<Long> seen = lastSeen.values().iterator();
+        while (seen.hasNext()) {
+            if (nowMs - seen.next() >= windowMs) {
+                seen.remove();
+            }
+        }
+    }
+}
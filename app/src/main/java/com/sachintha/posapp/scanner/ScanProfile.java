@@ -0,0 +1,139 @@
+package com.sachintha.posapp.scanner;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.google.mlkit.vision.barcode.BarcodeScannerOptions;
+import com.google.mlkit.vision.barcode.common.Barcode;
+
+import java.util.Arrays;
+
+/**
+ * How the camera scanner analyzes frames, chosen per store in Settings
+ * Fewer pixels and fewer barcode formats make each frame cheaper to decode:
+ * the analysis resolution is what the camera delivers, the scan region is the
+ * centre part of the frame actually decoded, and the duty cycle caps how much
+ * of the time the detector may run, leaving the rest for the UI.
+ */
+public final class ScanProfile {
+
+    private static final String PREF_NAME = "POSSettings";
+    private static final String KEY_SCAN_PROFILE = "scanProfile";
+
+    // Product barcodes, QR codes are never printed on stock
+    private static final int[] RETAIL_FORMATS = {
+            Barcode.FORMAT_EAN_13, Barcode.FORMAT_EAN_8, Barcode.FORMAT_UPC_A, Barcode.FORMAT_UPC_E,
+            Barcode.FORMAT_CODE_128
+    };
+
+    public static final ScanProfile STANDARD = new ScanProfile("standard", "Standard",
+            1280, 720, 0.8f, 0.5f, 1f, RETAIL_FORMATS);
+
+    public static final ScanProfile LOW_END = new ScanProfile("low_end", "Low-end terminal",
+            640, 480, 0.7f, 0.4f, 0.5f,
+            new int[]{Barcode.FORMAT_EAN_13, Barcode.FORMAT_EAN_8, Barcode.FORMAT_UPC_A, Barcode.FORMAT_UPC_E});
+
+    public static final ScanProfile IN_STORE_LABELS = new ScanProfile("in_store_labels", "In-store labels",
+            1280, 720, 0.9f, 0.6f, 1f,
+            new int[]{Barcode.FORMAT_EAN_13, Barcode.FORMAT_EAN_8, Barcode.FORMAT_UPC_A, Barcode.FORMAT_UPC_E,
+                    Barcode.FORMAT_CODE_128, Barcode.FORMAT_CODE_39, Barcode.FORMAT_CODE_93, Barcode.FORMAT_ITF});
+
+    public static final ScanProfile[] ALL = {STANDARD, LOW_END, IN_STORE_LABELS};
+
+    private final String key;
+    private final String label;
+    private final int analysisWidth;
+    private final int analysisHeight;
+    private final float regionWidth;
+    private final float regionHeight;
+    private final float dutyCycle;
+    private final int[] formats;
+
+    private ScanProfile(String key, String label, int analysisWidth, int analysisHeight,
+                        float regionWidth, float regionHeight, float dutyCycle, int[] formats) {
+        this.key = key;
+        this.label = label;
+        this.analysisWidth = analysisWidth;
+        this.analysisHeight = analysisHeight;
+        this.regionWidth = regionWidth;
+        this.regionHeight = regionHeight;
+        this.dutyCycle = dutyCycle;
+        this.formats = formats;
+    }
+
+    /**
+     * The profile selected for this store, {@link #STANDARD} until one is chosen
+     */
+    public static ScanProfile forStore(Context context) {
+        String key = prefs(context).getString(KEY_SCAN_PROFILE, STANDARD.key);
+        for (ScanProfile profile : ALL) {
+            if (profile.key.equals(key)) {
+                return profile;
+            }
+        }
+        return STANDARD;
+    }
+
+    public static void setForStore(Context context, ScanProfile profile) {
+        prefs(context).edit().putString(KEY_SCAN_PROFILE, profile.key).apply();
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * This profile decoding the whole frame, for scanning several items at once
+     * Items spread across the view would otherwise fall outside the scan region.
+     */
+    public ScanProfile fullFrame() {
+        if (regionWidth >= 1f && regionHeight >= 1f) {
+            return this;
+        }
+        return new ScanProfile(key, label, analysisWidth, analysisHeight, 1f, 1f, dutyCycle, formats);
+    }
+
+    public BarcodeScannerOptions toScannerOptions() {
+        return new BarcodeScannerOptions.Builder()
+                .setBarcodeFormats(formats[0], Arrays.copyOfRange(formats, 1, formats.length))
+                .build();
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getAnalysisWidth() {
+        return analysisWidth;
+    }
+
+    public int getAnalysisHeight() {
+        return analysisHeight;
+    }
+
+    /**
+     * Width of the decoded region as a fraction of the upright frame
+     */
+    public float getRegionWidth() {
+        return regionWidth;
+    }
+
+    /**
+     * Height of the decoded region as a fraction of the upright frame
+     */
+    public float getRegionHeight() {
+        return regionHeight;
+    }
+
+    /**
+     * Largest share of the time the detector may be busy, 1 for no throttling
+     */
+    public float getDutyCycle() {
+        return dutyCycle;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,82 @@
+package com.sachintha.posapp.scanner;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Per frame timings of the scan pipeline, for tuning scan latency on a terminal
+ * Each stage keeps its last, average and worst time. Total runs from the frame
+ * reaching the analyzer to the scan being handed to the screen, the delay a
+ * cashier waits for the beep. Updated from the analysis and UI threads.
+ */
+public class ScanStats {
+
+    public enum Stage {
+        CROP, DETECT, DELIVER, TOTAL
+    }
+
+    private final long[] lastNanos = new long[Stage.values().length];
+    private final long[] totalNanos = new long[Stage.values().length];
+    private final long[] maxNanos = new long[Stage.values().length];
+    private final int[] samples = new int[Stage.values().length];
+    private int framesAnalyzed;
+    private int framesSkipped;
+    private int scans;
+
+    synchronized void record(Stage stage, long nanos) {
+        int i = stage.ordinal();
+        lastNanos[i] = nanos;
+        totalNanos[i] += nanos;
+        maxNanos[i] = Math.max(maxNanos[i], nanos);
+        samples[i]++;
+    }
+
+    synchronized void frameAnalyzed() {
+        framesAnalyzed++;
+    }
+
+    synchronized void frameSkipped() {
+        framesSkipped++;
+    }
+
+    synchronized void scanDelivered() {
+        scans++;
+    }
+
+    public synchronized double getAverageMillis(Stage stage) {
+        int i = stage.ordinal();
+        return samples[i] == 0 ? 0 : totalNanos[i] / (samples[i] * 1e6);
+    }
+
+    public synchronized double getMaxMillis(Stage stage) {
+        return maxNanos[stage.ordinal()] / 1e6;
+    }
+
+    public synchronized double getLastMillis(Stage stage) {
+        return lastNanos[stage.ordinal()] / 1e6;
+    }
+
+    public synchronized void reset() {
+        Arrays.fill(lastNanos, 0);
+        Arrays.fill(totalNanos, 0);
+        Arrays.fill(maxNanos, 0);
+        Arrays.fill(samples, 0);
+        framesAnalyzed = 0;
+        framesSkipped = 0;
+        scans = 0;
+    }
+
+    /**
+     * One line per stage with average, worst and last milliseconds
+     */
+    public synchronized String summary() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.US, "Frames analyzed %d, skipped %d, scans %d",
+                framesAnalyzed, framesSkipped, scans));
+        for (Stage stage : Stage.values()) {
+            text.append(String.format(Locale.US, "\n%-8s avg %6.1f ms  max %6.1f ms  last %6.1f ms",
+                    stage, getAverageMillis(stage), getMaxMillis(stage), getLastMillis(stage)));
+        }
+        return text.toString();
+    }
+}
@@ -16,12 +16,15 @@ import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.sachintha.posapp.POSApplication;
 import com.sachintha.posapp.R;
-import com.sachintha.posapp.database.POSDatabase;
 import com.sachintha.posapp.database.entity.Category;
 import com.sachintha.posapp.database.entity.Product;
+import com.sachintha.posapp.repository.CategoryRepository;
+import com.sachintha.posapp.repository.ProductRepository;
+import com.sachintha.posapp.utils.FormatUtils;
+import com.sachintha.posapp.utils.MoneyUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -35,7 +38,8 @@ public class AddEditProductActivity extends AppCompatActivity {
     private Spinner spinnerCategory;
     private Button btnSave, btnCancel;
 
-    private POSDatabase database;
+    private ProductRepository productRepository;
+    private CategoryRepository categoryRepository;
     private Product product;
     private boolean isEditMode = false;
     private List<Category> categories;
@@ -47,12 +51,12 @@ public class AddEditProductActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_add_edit_product);
 
-        database = POSApplication.getInstance().getDatabase();
+        productRepository = ProductRepository.getInstance(this);
+        categoryRepository = CategoryRepository.getInstance(this);
 
         initViews();
         setupListeners();
         loadCategories();
-        checkEditMode();
 
         // Setup barcode scanner launcher
         barcodeLauncher = registerForActivityResult(
@@ -95,8 +99,17 @@ public class AddEditProductActivity extends AppCompatActivity {
     }
 
     private void loadCategories() {
-        categories = database.categoryDao().getAllActiveCategories();
-        
+        btnSave.setEnabled(false);
+        categoryRepository.getAllActiveCategories().observe(this, activeCategories -> {
+            showCategories(activeCategories != null ? activeCategories : new ArrayList<>());
+            // Product fields need the category list to select the right entry
+            checkEditMode();
+        });
+    }
+
+    private void showCategories(List<Category> activeCategories) {
+        categories = activeCategories;
+
         // Add "No Category" option
         Category noCategory = new Category();
         noCategory.setId(0);
@@ -113,14 +126,18 @@ public class AddEditProductActivity extends AppCompatActivity {
         long productId = getIntent().getLongExtra("product_id", -1);
         if (productId != -1) {
             isEditMode = true;
-            product = database.productDao().getProductById(productId);
-            if (product != null) {
-                populateFields();
-                tvTitle.setText("Edit Product");
-            }
+            productRepository.getProductById(productId).observe(this, existing -> {
+                product = existing;
+                if (product != null) {
+                    populateFields();
+                    tvTitle.setText("Edit Product");
+                    btnSave.setEnabled(true);
+                }
+            });
         } else {
             tvTitle.setText("Add Product");
             product = new Product();
+            btnSave.setEnabled(true);
         }
     }
 
@@ -128,8 +145,8 @@ public class AddEditProductActivity extends AppCompatActivity {
         etName.setText(product.getName());
         etBarcode.setText(product.getBarcode());
         etDescription.setText(product.getDescription());
-        etPrice.setText(String.valueOf(product.getPrice()));
-        etCostPrice.setText(String.valueOf(product.getCostPrice()));
+        etPrice.setText(FormatUtils.formatPlainAmount(product.getPrice()));
+        etCostPrice.setText(FormatUtils.formatPlainAmount(product.getCostPrice()));
         etStock.setText(String.valueOf(product.getStock()));
         etMinStock.setText(String.valueOf(product.getMinStock()));
 
@@ -166,11 +183,11 @@ public class AddEditProductActivity extends AppCompatActivity {
             return;
         }
 
-        double price, costPrice = 0;
+        long price, costPrice = 0;
         int stock = 0, minStock = 10;
 
         try {
-            price = Double.parseDouble(priceStr);
+            price = MoneyUtils.parse(priceStr);
         } catch (NumberFormatException e) {
             etPrice.setError("Invalid price");
             return;
@@ -178,7 +195,7 @@ public class AddEditProductActivity extends AppCompatActivity {
 
         if (!TextUtils.isEmpty(costPriceStr)) {
             try {
-                costPrice = Double.parseDouble(costPriceStr);
+                costPrice = MoneyUtils.parse(costPriceStr);
             } catch (NumberFormatException e) {
                 etCostPrice.setError("Invalid cost price");
                 return;
@@ -203,16 +220,6 @@ public class AddEditProductActivity extends AppCompatActivity {
             }
         }
 
-        // Check barcode uniqueness
-        if (!TextUtils.isEmpty(barcode)) {
-            Product existing = database.productDao().getProductByBarcode(barcode);
-            if (existing != null && existing.getId() != product.getId()) {
-                etBarcode.setError("Barcode already exists");
-                etBarcode.requestFocus();
-                return;
-            }
-        }
-
         // Set product fields
         product.setName(name);
         product.setBarcode(TextUtils.isEmpty(barcode) ? null : barcode);
@@ -231,15 +238,49 @@ public class AddEditProductActivity extends AppCompatActivity {
             product.setCategoryId(null);
         }
 
+        btnSave.setEnabled(false);
+
+        // Check barcode uniqueness
+        if (!TextUtils.isEmpty(barcode)) {
+            productRepository.getProductByBarcode(barcode).observe(this, existing -> {
+                if (existing != null && existing.getId() != product.getId()) {
+                    btnSave.setEnabled(true);
+                    etBarcode.setError("Barcode already exists");
+                    etBarcode.requestFocus();
+                    return;
+                }
+                persistProduct();
+            });
+        } else {
+            persistProduct();
+        }
+    }
+
+    private void persistProduct() {
         // Save to database
         if (isEditMode) {
-            database.productDao().update(product);
-            Toast.makeText(this, "Product updated successfully", Toast.LENGTH_SHORT).show();
+            productRepository.update(product).observe(this, updated -> {
+                if (updated == null) {
+                    onSaveFailed();
+                    return;
+                }
+                Toast.makeText(this, "Product updated successfully", Toast.LENGTH_SHORT).show();
+                finish();
+            });
         } else {
-            database.productDao().insert(product);
-            Toast.makeText(this, "Product added successfully", Toast.LENGTH_SHORT).show();
+            productRepository.insert(product).observe(this, id -> {
+                if (id == null) {
+                    onSaveFailed();
+                    return;
+                }
+                Toast.makeText(this, "Product added successfully", Toast.LENGTH_SHORT).show();
+                finish();
+            });
         }
+    }
 
-        finish();
+    private void onSaveFailed() {
+        btnSave.setEnabled(true);
+        Toast.makeText(this, "Could not save the product, please try again", Toast.LENGTH_LONG).show();
     }
 }
@@ -4,7 +4,8 @@ import android.Manifest;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.os.Bundle;
-import android.util.Size;
+import android.view.View;
+import android.widget.Button;
 import android.widget.ImageButton;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -20,13 +21,15 @@ import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 
 import com.google.common.util.concurrent.ListenableFuture;
-import com.google.mlkit.vision.barcode.BarcodeScanner;
-import com.google.mlkit.vision.barcode.BarcodeScannerOptions;
-import com.google.mlkit.vision.barcode.BarcodeScanning;
 import com.google.mlkit.vision.barcode.common.Barcode;
-import com.google.mlkit.vision.common.InputImage;
 import com.sachintha.posapp.R;
+import com.sachintha.posapp.scanner.BarcodeAnalyzer;
+import com.sachintha.posapp.scanner.ScanProfile;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -34,23 +37,32 @@ import java.util.concurrent.Executors;
 /**
  * Barcode Scanner Activity
  * Uses CameraX and ML Kit for barcode scanning
+ * Returns the first barcode seen, or in batch mode every distinct barcode
+ * seen until the batch is confirmed, e.g. several items laid out together.
  */
 public class BarcodeScannerActivity extends AppCompatActivity {
 
+    public static final String EXTRA_BATCH_MODE = "batchMode";
+    public static final String EXTRA_BARCODES = "barcodes";
+
     private static final int CAMERA_PERMISSION_REQUEST = 100;
 
     private PreviewView previewView;
     private ImageButton btnClose;
     private TextView tvInstruction;
+    private Button btnConfirmBatch;
 
     private ExecutorService cameraExecutor;
-    private BarcodeScanner barcodeScanner;
+    private BarcodeAnalyzer barcodeAnalyzer;
     private boolean isScanning = true;
+    private boolean batchMode;
+    private final Set<String> batch = new LinkedHashSet<>();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_barcode_scanner);
+        batchMode = getIntent().getBooleanExtra(EXTRA_BATCH_MODE, false);
 
         initViews();
         setupBarcodeScanner();
@@ -66,30 +78,44 @@ public class BarcodeScannerActivity extends AppCompatActivity {
         previewView = findViewById(R.id.preview_view);
         btnClose = findViewById(R.id.btn_close);
         tvInstruction = findViewById(R.id.tv_instruction);
+        btnConfirmBatch = findViewById(R.id.btn_confirm_batch);
 
         btnClose.setOnClickListener(v -> {
             setResult(RESULT_CANCELED);
             finish();
         });
 
+        if (batchMode) {
+            tvInstruction.setText("Point camera at the items");
+            btnConfirmBatch.setVisibility(View.VISIBLE);
+            btnConfirmBatch.setOnClickListener(v -> onBatchConfirmed());
+        }
+
         cameraExecutor = Executors.newSingleThreadExecutor();
     }
 
     private void setupBarcodeScanner() {
-        BarcodeScannerOptions options = new BarcodeScannerOptions.Builder()
-                .setBarcodeFormats(
-                        Barcode.FORMAT_EAN_13,
-                        Barcode.FORMAT_EAN_8,
-                        Barcode.FORMAT_UPC_A,
-                        Barcode.FORMAT_UPC_E,
-                        Barcode.FORMAT_CODE_128,
-                        Barcode.FORMAT_CODE_39,
-                        Barcode.FORMAT_CODE_93,
-                        Barcode.FORMAT_ITF,
-                        Barcode.FORMAT_QR_CODE
-                )
-                .build();
-        barcodeScanner = BarcodeScanning.getClient(options);
+        // Crop, resolution and formats come from the store's scan profile,
+        // batches use the whole frame since the items are spread across the view
+        ScanProfile profile = ScanProfile.forStore(this);
+        if (batchMode) {
+            profile = profile.fullFrame();
+        }
+        barcodeAnalyzer = new BarcodeAnalyzer(profile, barcodes -> {
+            if (batchMode) {
+                addToBatch(barcodes);
+                return;
+            }
+            for (Barcode barcode : barcodes) {
+                String value = barcode.getRawValue();
+                if (isScanning && value != null && !value.isEmpty()) {
+                    isScanning = false;
+                    barcodeAnalyzer.setEnabled(false);
+                    onBarcodeDetected(value);
+                    break;
+                }
+            }
+        });
     }
 
     private boolean hasCameraPermission() {
@@ -139,39 +165,7 @@ public class BarcodeScannerActivity extends AppCompatActivity {
         preview.setSurfaceProvider(previewView.getSurfaceProvider());
 
         // Image Analysis for barcode scanning
-        ImageAnalysis imageAnalysis = new ImageAnalysis.Builder()
-                .setTargetResolution(new Size(1280, 720))
-                .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
-                .build();
-
-        imageAnalysis.setAnalyzer(cameraExecutor, imageProxy -> {
-            if (!isScanning) {
-                imageProxy.close();
-                return;
-            }
-
-            @SuppressWarnings("UnsafeOptInUsageError")
-            android.media.Image mediaImage = imageProxy.getImage();
-            if (mediaImage != null) {
-                InputImage image = InputImage.fromMediaImage(mediaImage, 
-                        imageProxy.getImageInfo().getRotationDegrees());
-                
-                barcodeScanner.process(image)
-                        .addOnSuccessListener(barcodes -> {
-                            for (Barcode barcode : barcodes) {
-                                String value = barcode.getRawValue();
-                                if (value != null && !value.isEmpty()) {
-                                    isScanning = false;
-                                    onBarcodeDetected(value);
-                                    break;
-                                }
-                            }
-                        })
-                        .addOnCompleteListener(task -> imageProxy.close());
-            } else {
-                imageProxy.close();
-            }
-        });
+        ImageAnalysis imageAnalysis = barcodeAnalyzer.createUseCase(cameraExecutor);
 
         // Camera selector
         CameraSelector cameraSelector = new CameraSelector.Builder()
@@ -187,14 +181,45 @@ public class BarcodeScannerActivity extends AppCompatActivity {
         }
     }
 
+    private void addToBatch(List<Barcode> barcodes) {
+        // Every code in the frame counts, one of each however often it is seen
+        int before = batch.size();
+        for (Barcode barcode : barcodes) {
+            String value = barcode.getRawValue();
+            if (value != null && !value.isEmpty()) {
+                batch.add(value);
+            }
+        }
+        if (batch.size() == before) {
+            return;
+        }
+        vibrate(50);
+        int count = batch.size();
+        tvInstruction.setText(count + (count == 1 ? " item scanned" : " items scanned"));
+        btnConfirmBatch.setText("Add " + count + (count == 1 ? " Item" : " Items"));
+        btnConfirmBatch.setEnabled(true);
+    }
+
+    private void onBatchConfirmed() {
+        barcodeAnalyzer.setEnabled(false);
+        Intent resultIntent = new Intent();
+        resultIntent.putStringArrayListExtra(EXTRA_BARCODES, new ArrayList<>(batch));
+        setResult(RESULT_OK, resultIntent);
+        finish();
+    }
+
+    private void vibrate(long millis) {
+        android.os.Vibrator vibrator = (android.os.Vibrator) getSystemService(VIBRATOR_SERVICE);
+        if (vibrator != null && vibrator.hasVibrator()) {
+            vibrator.vibrate(android.os.VibrationEffect.createOneShot(millis,
+                    android.os.VibrationEffect.DEFAULT_AMPLITUDE));
+        }
+    }
+
     private void onBarcodeDetected(String barcode) {
         runOnUiThread(() -> {
             // Vibrate on success
-            android.os.Vibrator vibrator = (android.os.Vibrator) getSystemService(VIBRATOR_SERVICE);
-            if (vibrator != null && vibrator.hasVibrator()) {
-                vibrator.vibrate(android.os.VibrationEffect.createOneShot(100, 
-                        android.os.VibrationEffect.DEFAULT_AMPLITUDE));
-            }
+            vibrate(100);
 
             // Return the barcode
             Intent resultIntent = new Intent();
@@ -208,6 +233,6 @@ public class BarcodeScannerActivity extends AppCompatActivity {
     protected void onDestroy() {
         super.onDestroy();
         cameraExecutor.shutdown();
-        barcodeScanner.close();
+        barcodeAnalyzer.close();
     }
 }
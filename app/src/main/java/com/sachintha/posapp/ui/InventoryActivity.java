@@ -9,51 +9,69 @@ import android.widget.ImageButton;
 import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.LiveData;
+import androidx.paging.LoadState;
+import androidx.paging.PagingData;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.tabs.TabLayout;
-import com.sachintha.posapp.POSApplication;
 import com.sachintha.posapp.R;
 import com.sachintha.posapp.adapter.InventoryAdapter;
-import com.sachintha.posapp.database.POSDatabase;
-import com.sachintha.posapp.database.entity.Product;
+import com.sachintha.posapp.database.projection.InventoryRow;
+import com.sachintha.posapp.database.projection.StockSummary;
+import com.sachintha.posapp.model.ProductFilter;
+import com.sachintha.posapp.repository.PagedQuery;
+import com.sachintha.posapp.repository.ProductRepository;
+import com.sachintha.posapp.utils.Debouncer;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Objects;
+
+import kotlin.Unit;
 
 /**
  * Inventory Management Activity
  * Shows stock levels with low stock alerts
+ * Products are paged from the database with the tab and search filters applied in SQL
  */
 public class InventoryActivity extends AppCompatActivity implements InventoryAdapter.OnInventoryActionListener {
 
+    private static final long SEARCH_DEBOUNCE_MS = 150;
+
     private ImageButton btnBack;
     private TabLayout tabLayout;
     private EditText etSearch;
     private RecyclerView rvInventory;
     private TextView tvEmpty, tvSummary;
 
-    private POSDatabase database;
+    private ProductRepository productRepository;
     private InventoryAdapter adapter;
-    private List<Product> allProducts;
-    private String currentFilter = "all"; // all, low, out
+    private Debouncer searchDebouncer;
+    private final ProductFilter filter = new ProductFilter();
+    private LiveData<PagingData<InventoryRow>> inventory;
+    private PagedQuery<ProductFilter, InventoryRow> inventoryPages;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_inventory);
 
-        database = POSApplication.getInstance().getDatabase();
+        productRepository = ProductRepository.getInstance(this);
+        inventoryPages = productRepository.newInventoryRows();
+        searchDebouncer = new Debouncer(this, SEARCH_DEBOUNCE_MS);
 
         initViews();
         setupListeners();
+        // The list reloads by itself when products change
+        loadInventory();
+        observeSummary();
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        loadInventory();
+        // Stock may have changed on another screen
+        productRepository.refreshStockSummary();
     }
 
     private void initViews() {
@@ -65,7 +83,15 @@ public class InventoryActivity extends AppCompatActivity implements InventoryAda
         tvSummary = findViewById(R.id.tv_summary);
 
         rvInventory.setLayoutManager(new LinearLayoutManager(this));
-        adapter = new InventoryAdapter(this, new ArrayList<>(), this);
+        adapter = new InventoryAdapter(this, this);
+        adapter.addLoadStateListener(states -> {
+            boolean empty = states.getRefresh() instanceof LoadState.NotLoading
+                    && states.getAppend().getEndOfPaginationReached()
+                    && adapter.getItemCount() == 0;
+            tvEmpty.setVisibility(empty ? View.VISIBLE : View.GONE);
+            rvInventory.setVisibility(empty ? View.GONE : View.VISIBLE);
+            return Unit.INSTANCE;
+        });
         rvInventory.setAdapter(adapter);
 
         // Setup tabs
@@ -82,16 +108,16 @@ public class InventoryActivity extends AppCompatActivity implements InventoryAda
             public void onTabSelected(TabLayout.Tab tab) {
                 switch (tab.getPosition()) {
                     case 0:
-                        currentFilter = "all";
+                        filter.setStock(ProductFilter.Stock.ALL);
                         break;
                     case 1:
-                        currentFilter = "low";
+                        filter.setStock(ProductFilter.Stock.LOW);
                         break;
                     case 2:
-                        currentFilter = "out";
+                        filter.setStock(ProductFilter.Stock.OUT);
                         break;
                 }
-                filterInventory(etSearch.getText().toString());
+                loadInventory();
             }
 
             @Override
@@ -116,73 +142,47 @@ public class InventoryActivity extends AppCompatActivity implements InventoryAda
     }
 
     private void loadInventory() {
-        allProducts = database.productDao().getAllActiveProducts();
-        updateSummary();
-        filterInventory(etSearch.getText().toString());
+        if (inventory != null) {
+            inventory.removeObservers(this);
+        }
+        inventory = inventoryPages.load(filter);
+        inventory.observe(this, products -> adapter.submitData(getLifecycle(), products));
     }
 
-    private void updateSummary() {
-        int total = allProducts.size();
-        int lowStock = 0;
-        int outOfStock = 0;
+    private void observeSummary() {
+        // One observer for the screen's lifetime, the repository reloads the same LiveData
+        productRepository.getStockSummary().observe(this, this::updateSummary);
+    }
 
-        for (Product product : allProducts) {
-            if (product.getStock() <= 0) {
-                outOfStock++;
-            } else if (product.isLowStock()) {
-                lowStock++;
-            }
+    private void updateSummary(StockSummary summary) {
+        if (summary == null) {
+            return;
         }
-
         tvSummary.setText(String.format("Total: %d | Low Stock: %d | Out of Stock: %d", 
-                total, lowStock, outOfStock));
+                summary.getTotal(), summary.getLowStock(), summary.getOutOfStock()));
     }
 
     private void filterInventory(String query) {
-        List<Product> filtered = new ArrayList<>();
-
-        for (Product product : allProducts) {
-            // Check query match
-            boolean matchesQuery = query.isEmpty() || 
-                product.getName().toLowerCase().contains(query.toLowerCase()) ||
-                (product.getBarcode() != null && product.getBarcode().contains(query));
-
-            if (!matchesQuery) continue;
-
-            // Check filter
-            boolean matchesFilter = false;
-            switch (currentFilter) {
-                case "all":
-                    matchesFilter = true;
-                    break;
-                case "low":
-                    matchesFilter = product.isLowStock() && product.getStock() > 0;
-                    break;
-                case "out":
-                    matchesFilter = product.getStock() <= 0;
-                    break;
-            }
-
-            if (matchesFilter) {
-                filtered.add(product);
-            }
+        if (query.trim().isEmpty()) {
+            // Show everything again straight away
+            searchDebouncer.cancel();
+            setQuery(null);
+        } else {
+            searchDebouncer.submit(() -> setQuery(query));
         }
+    }
 
-        adapter.updateProducts(filtered);
-
-        if (filtered.isEmpty()) {
-            tvEmpty.setVisibility(View.VISIBLE);
-            rvInventory.setVisibility(View.GONE);
-        } else {
-            tvEmpty.setVisibility(View.GONE);
-            rvInventory.setVisibility(View.VISIBLE);
+    private void setQuery(String query) {
+        if (Objects.equals(query, filter.getQuery())) {
+            return;
         }
+        filter.setQuery(query);
+        loadInventory();
     }
 
     @Override
-    public void onUpdateStock(Product product, int newStock) {
-        product.setStock(newStock);
-        database.productDao().update(product);
-        loadInventory();
+    public void onUpdateStock(InventoryRow product, int newStock) {
+        // Leave the listed product as it is so the adapter can diff it against the reload
+        productRepository.setStock(product.getId(), newStock);
     }
 }
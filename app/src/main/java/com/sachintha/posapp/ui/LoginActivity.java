@@ -12,10 +12,9 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.sachintha.posapp.POSApplication;
 import com.sachintha.posapp.R;
-import com.sachintha.posapp.database.POSDatabase;
 import com.sachintha.posapp.database.entity.User;
+import com.sachintha.posapp.repository.UserRepository;
 import com.sachintha.posapp.utils.SessionManager;
 
 /**
@@ -28,7 +27,7 @@ public class LoginActivity extends AppCompatActivity {
     private ProgressBar progressBar;
     private TextView tvForgotPassword, tvVersion;
 
-    private POSDatabase database;
+    private UserRepository userRepository;
     private SessionManager sessionManager;
 
     @Override
@@ -36,7 +35,7 @@ public class LoginActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_login);
 
-        database = POSApplication.getInstance().getDatabase();
+        userRepository = UserRepository.getInstance(this);
         sessionManager = SessionManager.getInstance(this);
 
         // Check if already logged in
@@ -93,8 +92,10 @@ public class LoginActivity extends AppCompatActivity {
         showProgress(true);
 
         // Authenticate user
-        User user = database.userDao().authenticate(username, password);
+        userRepository.authenticate(username, password).observe(this, this::onLoginResult);
+    }
 
+    private void onLoginResult(User user) {
         showProgress(false);
 
         if (user != null) {
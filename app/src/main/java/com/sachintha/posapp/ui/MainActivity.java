@@ -10,15 +10,13 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
 
-import com.sachintha.posapp.POSApplication;
 import com.sachintha.posapp.R;
-import com.sachintha.posapp.database.POSDatabase;
+import com.sachintha.posapp.repository.ProductRepository;
+import com.sachintha.posapp.repository.SaleRepository;
+import com.sachintha.posapp.utils.DateUtils;
 import com.sachintha.posapp.utils.FormatUtils;
 import com.sachintha.posapp.utils.SessionManager;
 
-import java.util.Calendar;
-import java.util.Date;
-
 /**
  * Main Dashboard Activity
  * Displays statistics and quick access to all POS features
@@ -30,7 +28,8 @@ public class MainActivity extends AppCompatActivity {
     private CardView cardPOS, cardProducts, cardSalesHistory, cardInventory, cardSettings;
     private LinearLayout btnLogout;
 
-    private POSDatabase database;
+    private SaleRepository saleRepository;
+    private ProductRepository productRepository;
     private SessionManager sessionManager;
 
     @Override
@@ -38,7 +37,8 @@ public class MainActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
-        database = POSApplication.getInstance().getDatabase();
+        saleRepository = SaleRepository.getInstance(this);
+        productRepository = ProductRepository.getInstance(this);
         sessionManager = SessionManager.getInstance(this);
 
         // Check if logged in
@@ -107,30 +107,30 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void loadDashboardData() {
-        // Get today's date range
-        Calendar calendar = Calendar.getInstance();
-        calendar.set(Calendar.HOUR_OF_DAY, 0);
-        calendar.set(Calendar.MINUTE, 0);
-        calendar.set(Calendar.SECOND, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
-        Date startOfDay = calendar.getTime();
-
-        calendar.set(Calendar.HOUR_OF_DAY, 23);
-        calendar.set(Calendar.MINUTE, 59);
-        calendar.set(Calendar.SECOND, 59);
-        Date endOfDay = calendar.getTime();
-
-        // Load statistics
-        double todaySales = database.saleDao().getTotalSalesBetweenDates(startOfDay, endOfDay);
-        int todayTransactions = database.saleDao().getSalesCountBetweenDates(startOfDay, endOfDay);
-        int totalProducts = database.productDao().getActiveProductCount();
-        int lowStockCount = database.productDao().getLowStockCount();
-
-        // Update UI
-        tvTodaySales.setText(FormatUtils.formatCurrency(todaySales));
-        tvTodayTransactions.setText(String.valueOf(todayTransactions));
-        tvTotalProducts.setText(String.valueOf(totalProducts));
-        tvLowStock.setText(String.valueOf(lowStockCount));
+        int today = DateUtils.todayKey();
+
+        // Load statistics in the background and update UI as each arrives
+        // A failed read posts null and leaves the card as it was
+        saleRepository.getTotalForDay(today).observe(this, todaySales -> {
+            if (todaySales != null) {
+                tvTodaySales.setText(FormatUtils.formatCurrency(todaySales));
+            }
+        });
+        saleRepository.getSalesCountForDay(today).observe(this, todayTransactions -> {
+            if (todayTransactions != null) {
+                tvTodayTransactions.setText(String.valueOf(todayTransactions));
+            }
+        });
+        productRepository.getActiveProductCount().observe(this, totalProducts -> {
+            if (totalProducts != null) {
+                tvTotalProducts.setText(String.valueOf(totalProducts));
+            }
+        });
+        productRepository.getLowStockCount().observe(this, lowStockCount -> {
+            if (lowStockCount != null) {
+                tvLowStock.setText(String.valueOf(lowStockCount));
+            }
+        });
     }
 
     private void showLogoutDialog() {
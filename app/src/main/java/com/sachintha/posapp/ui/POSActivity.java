@@ -1,12 +1,17 @@
 package com.sachintha.posapp.ui;
 
+import android.Manifest;
 import android.content.Intent;
+import android.content.pm.PackageManager;
 import android.os.Bundle;
 import android.text.Editable;
 import android.text.TextWatcher;
+import android.view.KeyEvent;
 import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.FrameLayout;
+import android.widget.HorizontalScrollView;
 import android.widget.ImageButton;
 import android.widget.LinearLayout;
 import android.widget.TextView;
@@ -16,29 +21,43 @@ import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.camera.view.PreviewView;
+import androidx.core.content.ContextCompat;
+import androidx.lifecycle.LiveData;
+import androidx.paging.PagingData;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
-import com.sachintha.posapp.POSApplication;
 import com.sachintha.posapp.R;
 import com.sachintha.posapp.adapter.CartAdapter;
 import com.sachintha.posapp.adapter.ProductGridAdapter;
-import com.sachintha.posapp.database.POSDatabase;
 import com.sachintha.posapp.database.entity.Category;
 import com.sachintha.posapp.database.entity.Product;
 import com.sachintha.posapp.database.entity.Sale;
 import com.sachintha.posapp.database.entity.SaleItem;
+import com.sachintha.posapp.database.projection.ProductTile;
 import com.sachintha.posapp.model.Cart;
 import com.sachintha.posapp.model.CartItem;
+import com.sachintha.posapp.model.ProductFilter;
+import com.sachintha.posapp.repository.CategoryRepository;
+import com.sachintha.posapp.repository.PagedQuery;
+import com.sachintha.posapp.repository.ProductCatalog;
+import com.sachintha.posapp.repository.ProductRepository;
+import com.sachintha.posapp.repository.SaleRepository;
+import com.sachintha.posapp.scanner.EmbeddedScanner;
+import com.sachintha.posapp.scanner.KeyboardWedgeReader;
+import com.sachintha.posapp.utils.Debouncer;
 import com.sachintha.posapp.utils.FormatUtils;
+import com.sachintha.posapp.utils.MoneyUtils;
 import com.sachintha.posapp.utils.SessionManager;
 
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * POS Terminal Activity
@@ -48,36 +67,56 @@ public class POSActivity extends AppCompatActivity implements
         ProductGridAdapter.OnProductClickListener, 
         CartAdapter.OnCartItemActionListener {
 
-    private static final int BARCODE_REQUEST = 1001;
+    private static final long SEARCH_DEBOUNCE_MS = 150;
 
     private EditText etSearch;
     private ImageButton btnScan, btnClearSearch;
-    private ChipGroup chipGroupCategories;
+    private ChipGroup chipGroupCategories, chipGroupTopSellers;
+    private HorizontalScrollView scrollTopSellers;
     private RecyclerView rvProducts, rvCart;
     private LinearLayout layoutEmptyCart;
     private TextView tvSubtotal, tvDiscount, tvTax, tvTotal, tvItemCount;
     private Button btnDiscount, btnClearCart, btnCheckout;
     private ImageButton btnBack;
-
-    private POSDatabase database;
+    private FrameLayout layoutScanner;
+    private PreviewView previewScanner;
+    private ImageButton btnCloseScanner;
+    private TextView tvScanStatus;
+
+    private ProductRepository productRepository;
+    private ProductCatalog productCatalog;
+    private CategoryRepository categoryRepository;
+    private SaleRepository saleRepository;
     private SessionManager sessionManager;
     private Cart cart;
 
     private ProductGridAdapter productAdapter;
     private CartAdapter cartAdapter;
-    private List<Product> allProducts;
+    private Debouncer searchDebouncer;
     private List<Category> categories;
 
-    private Long selectedCategoryId = null;
+    // Category and search text, applied in SQL
+    private final ProductFilter productFilter = new ProductFilter();
+    private LiveData<PagingData<ProductTile>> products;
+    private PagedQuery<ProductFilter, ProductTile> productPages;
 
-    private ActivityResultLauncher<Intent> barcodeLauncher;
+    private EmbeddedScanner scanner;
+    private KeyboardWedgeReader wedgeReader;
+    private Toast scanToast;
+    private ActivityResultLauncher<String> cameraPermissionLauncher;
+    private ActivityResultLauncher<Intent> batchScanLauncher;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_pos);
 
-        database = POSApplication.getInstance().getDatabase();
+        productRepository = ProductRepository.getInstance(this);
+        productPages = productRepository.newProductTiles();
+        productCatalog = ProductCatalog.getInstance(this);
+        searchDebouncer = new Debouncer(this, SEARCH_DEBOUNCE_MS);
+        categoryRepository = CategoryRepository.getInstance(this);
+        saleRepository = SaleRepository.getInstance(this);
         sessionManager = SessionManager.getInstance(this);
         cart = Cart.getInstance();
 
@@ -86,16 +125,33 @@ public class POSActivity extends AppCompatActivity implements
         setupListeners();
         loadCategories();
         loadProducts();
+        loadTopSellers();
+        observeLowStockAlerts();
         updateCartUI();
 
-        // Setup barcode scanner launcher
-        barcodeLauncher = registerForActivityResult(
+        // The scanner stays ready for the life of the screen, the camera only opens while it is shown
+        scanner = new EmbeddedScanner(this, this, previewScanner, this::handleBarcodeScanned);
+        // Handheld scanners type the code, catch it before it lands in the search box
+        wedgeReader = new KeyboardWedgeReader(this, this::handleBarcodeScanned, super::dispatchKeyEvent);
+        cameraPermissionLauncher = registerForActivityResult(
+            new ActivityResultContracts.RequestPermission(),
+            granted -> {
+                if (granted) {
+                    showScanner();
+                } else {
+                    Toast.makeText(this, "Camera permission is required for barcode scanning",
+                            Toast.LENGTH_LONG).show();
+                }
+            }
+        );
+        batchScanLauncher = registerForActivityResult(
             new ActivityResultContracts.StartActivityForResult(),
             result -> {
                 if (result.getResultCode() == RESULT_OK && result.getData() != null) {
-                    String barcode = result.getData().getStringExtra("barcode");
-                    if (barcode != null) {
-                        handleBarcodeScanned(barcode);
+                    List<String> barcodes = result.getData()
+                            .getStringArrayListExtra(BarcodeScannerActivity.EXTRA_BARCODES);
+                    if (barcodes != null && !barcodes.isEmpty()) {
+                        handleBatchScanned(barcodes);
                     }
                 }
             }
@@ -107,6 +163,8 @@ public class POSActivity extends AppCompatActivity implements
         btnScan = findViewById(R.id.btn_scan);
         btnClearSearch = findViewById(R.id.btn_clear_search);
         chipGroupCategories = findViewById(R.id.chip_group_categories);
+        chipGroupTopSellers = findViewById(R.id.chip_group_top_sellers);
+        scrollTopSellers = findViewById(R.id.scroll_top_sellers);
         rvProducts = findViewById(R.id.rv_products);
         rvCart = findViewById(R.id.rv_cart);
         layoutEmptyCart = findViewById(R.id.layout_empty_cart);
@@ -119,26 +177,56 @@ public class POSActivity extends AppCompatActivity implements
         btnClearCart = findViewById(R.id.btn_clear_cart);
         btnCheckout = findViewById(R.id.btn_checkout);
         btnBack = findViewById(R.id.btn_back);
+        layoutScanner = findViewById(R.id.layout_scanner);
+        previewScanner = findViewById(R.id.preview_scanner);
+        btnCloseScanner = findViewById(R.id.btn_close_scanner);
+        tvScanStatus = findViewById(R.id.tv_scan_status);
     }
 
     private void setupRecyclerViews() {
         // Products grid
         rvProducts.setLayoutManager(new GridLayoutManager(this, 3));
-        productAdapter = new ProductGridAdapter(this, new ArrayList<>(), this);
+        productAdapter = new ProductGridAdapter(this, this);
         rvProducts.setAdapter(productAdapter);
 
         // Cart list
         rvCart.setLayoutManager(new LinearLayoutManager(this));
-        cartAdapter = new CartAdapter(cart.getItems(), this);
+        cartAdapter = new CartAdapter(this);
         rvCart.setAdapter(cartAdapter);
+        cartAdapter.submitList(cart.getItems());
     }
 
     private void setupListeners() {
         btnBack.setOnClickListener(v -> onBackPressed());
 
         btnScan.setOnClickListener(v -> {
+            if (scanner.isRunning()) {
+                hideScanner();
+            } else if (ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA)
+                    == PackageManager.PERMISSION_GRANTED) {
+                showScanner();
+            } else {
+                cameraPermissionLauncher.launch(Manifest.permission.CAMERA);
+            }
+        });
+        // Long press to scan several items laid out together and add them in one go
+        btnScan.setOnLongClickListener(v -> {
+            hideScanner();
             Intent intent = new Intent(this, BarcodeScannerActivity.class);
-            barcodeLauncher.launch(intent);
+            intent.putExtra(BarcodeScannerActivity.EXTRA_BATCH_MODE, true);
+            batchScanLauncher.launch(intent);
+            return true;
+        });
+        btnCloseScanner.setOnClickListener(v -> hideScanner());
+        // Scan timings, for tuning the store's scan profile on this terminal
+        tvScanStatus.setOnLongClickListener(v -> {
+            new AlertDialog.Builder(this)
+                .setTitle("Scan Timings")
+                .setMessage(scanner.getStats().summary())
+                .setPositiveButton("OK", null)
+                .setNeutralButton("Reset", (dialog, which) -> scanner.getStats().reset())
+                .show();
+            return true;
         });
 
         btnClearSearch.setOnClickListener(v -> {
@@ -186,7 +274,12 @@ public class POSActivity extends AppCompatActivity implements
     }
 
     private void loadCategories() {
-        categories = database.categoryDao().getAllActiveCategories();
+        categoryRepository.getAllActiveCategories().observe(this, categories ->
+                showCategories(categories != null ? categories : new ArrayList<>()));
+    }
+
+    private void showCategories(List<Category> categories) {
+        this.categories = categories;
         chipGroupCategories.removeAllViews();
 
         // Add "All" chip
@@ -194,62 +287,178 @@ public class POSActivity extends AppCompatActivity implements
         allChip.setText("All");
         allChip.setCheckable(true);
         allChip.setChecked(true);
-        allChip.setOnClickListener(v -> {
-            selectedCategoryId = null;
-            filterProducts(etSearch.getText().toString());
-        });
+        allChip.setOnClickListener(v -> setCategory(null));
         chipGroupCategories.addView(allChip);
 
         // Add category chips
         for (Category category : categories) {
             Chip chip = new Chip(this);
-            chip.setText(category.getName());
+            chip.setText(category.getName() + " (" + category.getActiveProductCount() + ")");
             chip.setCheckable(true);
-            chip.setOnClickListener(v -> {
-                selectedCategoryId = category.getId();
-                filterProducts(etSearch.getText().toString());
-            });
+            chip.setOnClickListener(v -> setCategory(category.getId()));
             chipGroupCategories.addView(chip);
         }
     }
 
     private void loadProducts() {
-        allProducts = database.productDao().getAllActiveProducts();
-        productAdapter.updateProducts(allProducts);
+        // Pages reload by themselves whenever a product changes, e.g. stock after a sale
+        if (products != null) {
+            products.removeObservers(this);
+        }
+        products = productPages.load(productFilter);
+        products.observe(this, pages -> productAdapter.submitData(getLifecycle(), pages));
     }
 
-    private void filterProducts(String query) {
-        List<Product> filtered = new ArrayList<>();
-
-        for (Product product : allProducts) {
-            boolean matchesQuery = query.isEmpty() || 
-                product.getName().toLowerCase().contains(query.toLowerCase()) ||
-                (product.getBarcode() != null && product.getBarcode().contains(query));
-            
-            boolean matchesCategory = selectedCategoryId == null || 
-                (product.getCategoryId() != null && product.getCategoryId().equals(selectedCategoryId));
-
-            if (matchesQuery && matchesCategory) {
-                filtered.add(product);
+    private void loadTopSellers() {
+        // Re-emitted after every sale as velocity scores change
+        productCatalog.getTopSellers().observe(this, this::showTopSellers);
+    }
+
+    private void observeLowStockAlerts() {
+        saleRepository.getLowStockAlerts().observe(this, event -> {
+            List<Product> products = event.getContentIfNotHandled();
+            if (products == null) {
+                return;
+            }
+            StringBuilder message = new StringBuilder("Low stock:");
+            for (Product product : products) {
+                message.append("\n").append(product.getName()).append(" (").append(product.getStock()).append(" left)");
             }
+            Toast.makeText(this, message, Toast.LENGTH_LONG).show();
+        });
+    }
+
+    private void showTopSellers(List<Product> products) {
+        chipGroupTopSellers.removeAllViews();
+        scrollTopSellers.setVisibility(products.isEmpty() ? View.GONE : View.VISIBLE);
+
+        for (Product product : products) {
+            Chip chip = new Chip(this);
+            chip.setText(product.getName());
+            chip.setOnClickListener(v -> {
+                // Use the latest cached row in case stock changed since the chip was made
+                Product current = productCatalog.findById(product.getId());
+                addToCart(current != null ? current : product);
+            });
+            chipGroupTopSellers.addView(chip);
+        }
+    }
+
+    private void filterProducts(String query) {
+        if (query.trim().isEmpty()) {
+            // Show the whole category again straight away
+            searchDebouncer.cancel();
+            setQuery(null);
+        } else {
+            searchDebouncer.submit(() -> setQuery(query));
         }
+    }
 
-        productAdapter.updateProducts(filtered);
+    private void setQuery(String query) {
+        if (Objects.equals(query, productFilter.getQuery())) {
+            return;
+        }
+        productFilter.setQuery(query);
+        loadProducts();
     }
 
-    private void handleBarcodeScanned(String barcode) {
-        Product product = database.productDao().getProductByBarcode(barcode);
-        if (product != null) {
-            cart.addProduct(product);
+    private void setCategory(Long categoryId) {
+        if (Objects.equals(categoryId, productFilter.getCategoryId())) {
+            return;
+        }
+        productFilter.setCategoryId(categoryId);
+        loadProducts();
+    }
+
+    private void showScanner() {
+        layoutScanner.setVisibility(View.VISIBLE);
+        tvScanStatus.setText("Scan items one after another");
+        scanner.start();
+    }
+
+    private void hideScanner() {
+        scanner.stop();
+        layoutScanner.setVisibility(View.GONE);
+    }
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        return wedgeReader.onKeyEvent(event) || super.dispatchKeyEvent(event);
+    }
+
+    private void handleBarcodeScanned(CharSequence barcode) {
+        // Straight from the catalog while scanning a run of items, the code may be the reader's buffer
+        Product cached = productCatalog.findByBarcode(barcode);
+        if (cached != null) {
+            addScannedProduct(cached);
+            return;
+        }
+        String code = barcode.toString();
+        productRepository.getProductByBarcode(code).observe(this, product -> {
+            if (product != null) {
+                addScannedProduct(product);
+            } else {
+                showScanResult("Product not found: " + code);
+            }
+        });
+    }
+
+    private void handleBatchScanned(List<String> barcodes) {
+        productRepository.getProductsByBarcodes(barcodes).observe(this, found -> {
+            if (found == null) {
+                showScanResult("Could not look up the scanned items");
+                return;
+            }
+            int added = 0;
+            for (String barcode : barcodes) {
+                Product product = found.get(barcode);
+                if (product != null) {
+                    cart.addProduct(product);
+                    added++;
+                }
+            }
             updateCartUI();
-            Toast.makeText(this, "Added: " + product.getName(), Toast.LENGTH_SHORT).show();
+            int missing = barcodes.size() - added;
+            showScanResult("Added " + added + (added == 1 ? " item" : " items")
+                    + (missing > 0 ? ", " + missing + " not found" : ""));
+        });
+    }
+
+    private void addScannedProduct(Product product) {
+        cart.addProduct(product);
+        updateCartUI();
+        showScanResult("Added: " + product.getName());
+    }
+
+    private void showScanResult(String message) {
+        // Toasts queue up one after another, too slow to keep up with a scanning run
+        if (scanner.isRunning()) {
+            tvScanStatus.setText(message);
         } else {
-            Toast.makeText(this, "Product not found: " + barcode, Toast.LENGTH_SHORT).show();
+            if (scanToast != null) {
+                scanToast.cancel();
+            }
+            scanToast = Toast.makeText(this, message, Toast.LENGTH_SHORT);
+            scanToast.show();
         }
     }
 
     @Override
-    public void onProductClick(Product product) {
+    public void onProductClick(ProductTile tile) {
+        // The tile only has what the grid shows, the cart needs the whole product
+        Product product = productCatalog.findById(tile.getId());
+        if (product != null) {
+            addToCart(product);
+        } else {
+            productRepository.getProductById(tile.getId()).observe(this, loaded -> {
+                if (loaded != null) {
+                    addToCart(loaded);
+                }
+            });
+        }
+    }
+
+    private void addToCart(Product product) {
         if (product.getStock() > 0) {
             cart.addProduct(product);
             updateCartUI();
@@ -271,7 +480,7 @@ public class POSActivity extends AppCompatActivity implements
 
     private void updateCartUI() {
         List<CartItem> items = cart.getItems();
-        cartAdapter.updateItems(items);
+        cartAdapter.submitList(items);
 
         if (items.isEmpty()) {
             layoutEmptyCart.setVisibility(View.VISIBLE);
@@ -325,7 +534,7 @@ public class POSActivity extends AppCompatActivity implements
         Button btnCard = dialogView.findViewById(R.id.btn_card);
 
         final String[] paymentMethod = {"CASH"};
-        double total = cart.getTotal();
+        long total = cart.getTotal();
 
         tvCheckoutTotal.setText(FormatUtils.formatCurrency(total));
 
@@ -349,8 +558,8 @@ public class POSActivity extends AppCompatActivity implements
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
                 try {
-                    double paid = Double.parseDouble(s.toString().replace(",", ""));
-                    double change = paid - total;
+                    long paid = MoneyUtils.parse(s);
+                    long change = paid - total;
                     if (change >= 0) {
                         tvChange.setText("Change: " + FormatUtils.formatCurrency(change));
                         tvChange.setTextColor(getResources().getColor(R.color.success, null));
@@ -372,7 +581,7 @@ public class POSActivity extends AppCompatActivity implements
             .setView(dialogView)
             .setPositiveButton("Complete Sale", (dialog, which) -> {
                 try {
-                    double amountPaid = Double.parseDouble(etAmountPaid.getText().toString().replace(",", ""));
+                    long amountPaid = MoneyUtils.parse(etAmountPaid.getText());
                     if (amountPaid >= total) {
                         completeSale(paymentMethod[0], amountPaid);
                     } else {
@@ -386,7 +595,7 @@ public class POSActivity extends AppCompatActivity implements
             .show();
     }
 
-    private void completeSale(String paymentMethod, double amountPaid) {
+    private void completeSale(String paymentMethod, long amountPaid) {
         // Create sale record
         Sale sale = new Sale();
         sale.setInvoiceNumber(FormatUtils.generateInvoiceNumber());
@@ -402,12 +611,10 @@ public class POSActivity extends AppCompatActivity implements
         sale.setPaymentMethod(paymentMethod);
         sale.setStatus("COMPLETED");
 
-        long saleId = database.saleDao().insert(sale);
-
-        // Create sale items and update stock
+        // Create sale items
+        List<SaleItem> saleItems = new ArrayList<>();
         for (CartItem item : cart.getItems()) {
             SaleItem saleItem = new SaleItem();
-            saleItem.setSaleId(saleId);
             saleItem.setProductId(item.getProductId());
             saleItem.setProductName(item.getProductName());
             saleItem.setProductBarcode(item.getBarcode());
@@ -415,16 +622,25 @@ public class POSActivity extends AppCompatActivity implements
             saleItem.setUnitPrice(item.getUnitPrice());
             saleItem.setDiscount(item.getDiscount());
             saleItem.setTotal(item.getTotal());
-
-            database.saleItemDao().insert(saleItem);
-
-            // Decrease stock
-            database.productDao().decreaseStock(item.getProductId(), item.getQuantity());
+            saleItems.add(saleItem);
         }
 
-        // Clear cart and refresh products
+        // Save sale and update stock in the background
+        btnCheckout.setEnabled(false);
+        saleRepository.completeSale(sale, saleItems).observe(this, saleId -> {
+            if (saleId == null) {
+                // Nothing was saved, the cart is still there to try again
+                btnCheckout.setEnabled(!cart.isEmpty());
+                Toast.makeText(this, "Could not save the sale, please try again", Toast.LENGTH_LONG).show();
+                return;
+            }
+            onSaleCompleted(sale, saleId);
+        });
+    }
+
+    private void onSaleCompleted(Sale sale, long saleId) {
+        // Clear cart, the catalog refreshes the sold products itself
         cart.clear();
-        loadProducts();
         updateCartUI();
 
         // Show success and offer to print receipt
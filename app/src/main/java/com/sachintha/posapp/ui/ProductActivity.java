@@ -10,19 +10,25 @@ import android.widget.ImageButton;
 import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.LiveData;
+import androidx.paging.LoadState;
+import androidx.paging.PagingData;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
-import com.sachintha.posapp.POSApplication;
 import com.sachintha.posapp.R;
 import com.sachintha.posapp.adapter.ProductListAdapter;
-import com.sachintha.posapp.database.POSDatabase;
 import com.sachintha.posapp.database.entity.Product;
+import com.sachintha.posapp.model.ProductFilter;
+import com.sachintha.posapp.repository.PagedQuery;
+import com.sachintha.posapp.repository.ProductRepository;
+import com.sachintha.posapp.utils.Debouncer;
 import com.sachintha.posapp.utils.SessionManager;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Objects;
+
+import kotlin.Unit;
 
 /**
  * Product Management Activity
@@ -30,32 +36,36 @@ import java.util.List;
  */
 public class ProductActivity extends AppCompatActivity implements ProductListAdapter.OnProductActionListener {
 
+    private static final long SEARCH_DEBOUNCE_MS = 150;
+
     private ImageButton btnBack;
     private EditText etSearch;
     private RecyclerView rvProducts;
     private TextView tvEmpty;
     private FloatingActionButton fabAdd;
 
-    private POSDatabase database;
+    private ProductRepository productRepository;
     private SessionManager sessionManager;
     private ProductListAdapter adapter;
-    private List<Product> allProducts;
+    private Debouncer searchDebouncer;
+    private final ProductFilter filter = new ProductFilter();
+    private LiveData<PagingData<Product>> products;
+    private PagedQuery<ProductFilter, Product> productPages;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_product);
 
-        database = POSApplication.getInstance().getDatabase();
+        productRepository = ProductRepository.getInstance(this);
+        productPages = productRepository.newProductPages();
+        searchDebouncer = new Debouncer(this, SEARCH_DEBOUNCE_MS);
         sessionManager = SessionManager.getInstance(this);
+        filter.setIncludeInactive(true);
 
         initViews();
         setupListeners();
-    }
-
-    @Override
-    protected void onResume() {
-        super.onResume();
+        // The list reloads by itself when products are added or edited
         loadProducts();
     }
 
@@ -67,7 +77,13 @@ public class ProductActivity extends AppCompatActivity implements ProductListAda
         fabAdd = findViewById(R.id.fab_add);
 
         rvProducts.setLayoutManager(new LinearLayoutManager(this));
-        adapter = new ProductListAdapter(this, new ArrayList<>(), this);
+        adapter = new ProductListAdapter(this, this);
+        adapter.addLoadStateListener(states -> {
+            updateEmptyState(states.getRefresh() instanceof LoadState.NotLoading
+                    && states.getAppend().getEndOfPaginationReached()
+                    && adapter.getItemCount() == 0);
+            return Unit.INSTANCE;
+        });
         rvProducts.setAdapter(adapter);
 
         // Only admins can add products
@@ -99,27 +115,33 @@ public class ProductActivity extends AppCompatActivity implements ProductListAda
     }
 
     private void loadProducts() {
-        allProducts = database.productDao().getAllProducts();
-        adapter.updateProducts(allProducts);
-        updateEmptyState();
+        if (products != null) {
+            products.removeObservers(this);
+        }
+        products = productPages.load(filter);
+        products.observe(this, pages -> adapter.submitData(getLifecycle(), pages));
     }
 
     private void filterProducts(String query) {
-        if (allProducts == null) return;
+        if (query.trim().isEmpty()) {
+            // Show everything again straight away
+            searchDebouncer.cancel();
+            setQuery(null);
+        } else {
+            searchDebouncer.submit(() -> setQuery(query));
+        }
+    }
 
-        List<Product> filtered = new ArrayList<>();
-        for (Product product : allProducts) {
-            if (product.getName().toLowerCase().contains(query.toLowerCase()) ||
-                (product.getBarcode() != null && product.getBarcode().contains(query))) {
-                filtered.add(product);
-            }
+    private void setQuery(String query) {
+        if (Objects.equals(query, filter.getQuery())) {
+            return;
         }
-        adapter.updateProducts(filtered);
-        updateEmptyState();
+        filter.setQuery(query);
+        loadProducts();
     }
 
-    private void updateEmptyState() {
-        if (adapter.getItemCount() == 0) {
+    private void updateEmptyState(boolean empty) {
+        if (empty) {
             tvEmpty.setVisibility(View.VISIBLE);
             rvProducts.setVisibility(View.GONE);
         } else {
@@ -140,11 +162,14 @@ public class ProductActivity extends AppCompatActivity implements ProductListAda
         new androidx.appcompat.app.AlertDialog.Builder(this)
             .setTitle("Delete Product")
             .setMessage("Are you sure you want to delete \"" + product.getName() + "\"?")
-            .setPositiveButton("Delete", (dialog, which) -> {
-                product.setActive(false);
-                database.productDao().update(product);
-                loadProducts();
-            })
+            .setPositiveButton("Delete", (dialog, which) ->
+                // Change a fresh copy, the listed one must stay as it is for the adapter to diff
+                productRepository.getProductById(product.getId()).observe(this, current -> {
+                    if (current != null) {
+                        current.setActive(false);
+                        productRepository.update(current);
+                    }
+                }))
             .setNegativeButton("Cancel", null)
             .show();
     }
@@ -18,12 +18,11 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.sachintha.posapp.POSApplication;
 import com.sachintha.posapp.R;
 import com.sachintha.posapp.adapter.SaleItemsAdapter;
-import com.sachintha.posapp.database.POSDatabase;
 import com.sachintha.posapp.database.entity.Sale;
 import com.sachintha.posapp.database.entity.SaleItem;
+import com.sachintha.posapp.repository.SaleRepository;
 import com.sachintha.posapp.utils.FormatUtils;
 
 import java.io.File;
@@ -45,7 +44,7 @@ public class SaleDetailsActivity extends AppCompatActivity {
     private Button btnPrint;
     private LinearLayout receiptLayout;
 
-    private POSDatabase database;
+    private SaleRepository saleRepository;
     private Sale sale;
     private List<SaleItem> saleItems;
 
@@ -54,7 +53,7 @@ public class SaleDetailsActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_sale_details);
 
-        database = POSApplication.getInstance().getDatabase();
+        saleRepository = SaleRepository.getInstance(this);
 
         initViews();
         loadSaleDetails();
@@ -91,15 +90,22 @@ public class SaleDetailsActivity extends AppCompatActivity {
             return;
         }
 
-        sale = database.saleDao().getSaleById(saleId);
-        if (sale == null) {
-            Toast.makeText(this, "Sale not found", Toast.LENGTH_SHORT).show();
-            finish();
-            return;
-        }
-
-        saleItems = database.saleItemDao().getSaleItemsBySaleId(saleId);
+        btnPrint.setEnabled(false);
+        saleRepository.getSaleWithItems(saleId).observe(this, loaded -> {
+            if (loaded == null) {
+                Toast.makeText(this, "Sale not found", Toast.LENGTH_SHORT).show();
+                finish();
+                return;
+            }
+            sale = loaded.getSale();
+            saleItems = loaded.getItems();
+            showSale();
+            rvItems.setAdapter(new SaleItemsAdapter(saleItems));
+            btnPrint.setEnabled(true);
+        });
+    }
 
+    private void showSale() {
         // Populate views
         tvInvoice.setText(sale.getInvoiceNumber());
         tvDate.setText(FormatUtils.formatDateTime(sale.getSaleDate()));
@@ -121,10 +127,6 @@ public class SaleDetailsActivity extends AppCompatActivity {
         } else {
             tvStatus.setTextColor(getResources().getColor(R.color.error, null));
         }
-
-        // Setup items list
-        SaleItemsAdapter adapter = new SaleItemsAdapter(saleItems);
-        rvItems.setAdapter(adapter);
     }
 
     private void printReceipt() {
@@ -5,45 +5,68 @@ import android.view.View;
 import android.widget.ImageButton;
 import android.widget.TextView;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.util.Pair;
+import androidx.lifecycle.LiveData;
+import androidx.paging.LoadState;
+import androidx.paging.PagingData;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.sachintha.posapp.POSApplication;
+import com.google.android.material.chip.Chip;
+import com.google.android.material.datepicker.MaterialDatePicker;
 import com.sachintha.posapp.R;
 import com.sachintha.posapp.adapter.SalesAdapter;
-import com.sachintha.posapp.database.POSDatabase;
-import com.sachintha.posapp.database.entity.Sale;
-
+import com.sachintha.posapp.database.entity.User;
+import com.sachintha.posapp.database.projection.SaleSummary;
+import com.sachintha.posapp.model.SaleFilter;
+import com.sachintha.posapp.repository.PagedQuery;
+import com.sachintha.posapp.repository.SaleRepository;
+import com.sachintha.posapp.repository.UserRepository;
+import com.sachintha.posapp.utils.DateUtils;
+import com.sachintha.posapp.utils.FormatUtils;
+
+import java.util.Date;
 import java.util.List;
 
+import kotlin.Unit;
+
 /**
  * Sales History Activity
- * Displays list of all completed sales
+ * Displays sales a page at a time, filtered by date, cashier, status and payment method
  */
 public class SalesHistoryActivity extends AppCompatActivity implements SalesAdapter.OnSaleClickListener {
 
+    private static final String[] STATUSES = {"COMPLETED", "REFUNDED", "CANCELLED"};
+    private static final String[] PAYMENT_METHODS = {"CASH", "CARD"};
+
     private ImageButton btnBack;
     private RecyclerView rvSales;
     private TextView tvEmpty;
+    private Chip chipDate, chipCashier, chipStatus, chipPayment;
 
-    private POSDatabase database;
+    private SaleRepository saleRepository;
+    private UserRepository userRepository;
     private SalesAdapter adapter;
 
+    private final SaleFilter filter = new SaleFilter();
+    private LiveData<PagingData<SaleSummary>> history;
+    private PagedQuery<SaleFilter, SaleSummary> historyPages;
+    private List<User> cashiers;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_sales_history);
 
-        database = POSApplication.getInstance().getDatabase();
+        saleRepository = SaleRepository.getInstance(this);
+        historyPages = saleRepository.newSalesHistory();
+        userRepository = UserRepository.getInstance(this);
 
         initViews();
-        loadSales();
-    }
-
-    @Override
-    protected void onResume() {
-        super.onResume();
+        userRepository.getAllActiveUsers().observe(this, users -> cashiers = users);
+        // The history reloads by itself when sales change, so it is only requested again when a filter changes
         loadSales();
     }
 
@@ -51,29 +74,146 @@ public class SalesHistoryActivity extends AppCompatActivity implements SalesAdap
         btnBack = findViewById(R.id.btn_back);
         rvSales = findViewById(R.id.rv_sales);
         tvEmpty = findViewById(R.id.tv_empty);
+        chipDate = findViewById(R.id.chip_date);
+        chipCashier = findViewById(R.id.chip_cashier);
+        chipStatus = findViewById(R.id.chip_status);
+        chipPayment = findViewById(R.id.chip_payment);
 
         btnBack.setOnClickListener(v -> onBackPressed());
 
+        adapter = new SalesAdapter(this, this);
+        adapter.addLoadStateListener(states -> {
+            boolean empty = states.getRefresh() instanceof LoadState.NotLoading
+                    && states.getAppend().getEndOfPaginationReached()
+                    && adapter.getItemCount() == 0;
+            tvEmpty.setVisibility(empty ? View.VISIBLE : View.GONE);
+            rvSales.setVisibility(empty ? View.GONE : View.VISIBLE);
+            return Unit.INSTANCE;
+        });
         rvSales.setLayoutManager(new LinearLayoutManager(this));
+        rvSales.setAdapter(adapter);
+
+        chipDate.setOnClickListener(v -> showDateFilter());
+        chipCashier.setOnClickListener(v -> showCashierFilter());
+        chipStatus.setOnClickListener(v -> showStatusFilter());
+        chipPayment.setOnClickListener(v -> showPaymentFilter());
+        chipDate.setOnCloseIconClickListener(v -> {
+            filter.setDateRange(null, null);
+            onFilterChanged();
+        });
+        chipCashier.setOnCloseIconClickListener(v -> {
+            filter.setUserId(null);
+            onFilterChanged();
+        });
+        chipStatus.setOnCloseIconClickListener(v -> {
+            filter.setStatus(null);
+            onFilterChanged();
+        });
+        chipPayment.setOnCloseIconClickListener(v -> {
+            filter.setPaymentMethod(null);
+            onFilterChanged();
+        });
     }
 
     private void loadSales() {
-        List<Sale> sales = database.saleDao().getAllSales();
-        
-        if (sales.isEmpty()) {
-            tvEmpty.setVisibility(View.VISIBLE);
-            rvSales.setVisibility(View.GONE);
+        if (history != null) {
+            history.removeObservers(this);
+        }
+        history = historyPages.load(filter);
+        history.observe(this, sales -> adapter.submitData(getLifecycle(), sales));
+    }
+
+    private void onFilterChanged() {
+        updateFilterChips();
+        loadSales();
+        rvSales.scrollToPosition(0);
+    }
+
+    private void updateFilterChips() {
+        if (filter.getStartDate() != null) {
+            Date lastDay = new Date(filter.getEndDate().getTime() - 1);
+            chipDate.setText(FormatUtils.formatDate(filter.getStartDate()) + " - " + FormatUtils.formatDate(lastDay));
         } else {
-            tvEmpty.setVisibility(View.GONE);
-            rvSales.setVisibility(View.VISIBLE);
-            
-            adapter = new SalesAdapter(this, sales, this);
-            rvSales.setAdapter(adapter);
+            chipDate.setText("Any date");
+        }
+        chipDate.setCloseIconVisible(filter.getStartDate() != null);
+
+        chipCashier.setText(filter.getUserId() != null ? cashierName(filter.getUserId()) : "All cashiers");
+        chipCashier.setCloseIconVisible(filter.getUserId() != null);
+
+        chipStatus.setText(filter.getStatus() != null ? filter.getStatus() : "Any status");
+        chipStatus.setCloseIconVisible(filter.getStatus() != null);
+
+        chipPayment.setText(filter.getPaymentMethod() != null ? filter.getPaymentMethod() : "Any payment");
+        chipPayment.setCloseIconVisible(filter.getPaymentMethod() != null);
+    }
+
+    private void showDateFilter() {
+        MaterialDatePicker<Pair<Long, Long>> picker = MaterialDatePicker.Builder.dateRangePicker()
+                .setTitleText("Sales between")
+                .build();
+        picker.addOnPositiveButtonClickListener(selection -> {
+            if (selection.first == null || selection.second == null) {
+                return;
+            }
+            Date start = DateUtils.fromUtcDay(selection.first);
+            Date end = DateUtils.startOfNextDay(DateUtils.fromUtcDay(selection.second));
+            filter.setDateRange(start, end);
+            onFilterChanged();
+        });
+        picker.show(getSupportFragmentManager(), "sales_date_range");
+    }
+
+    private void showCashierFilter() {
+        if (cashiers == null) {
+            return;
+        }
+        String[] names = new String[cashiers.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = cashiers.get(i).getFullName();
+        }
+        new AlertDialog.Builder(this)
+            .setTitle("Cashier")
+            .setItems(names, (dialog, which) -> {
+                filter.setUserId(cashiers.get(which).getId());
+                onFilterChanged();
+            })
+            .show();
+    }
+
+    private void showStatusFilter() {
+        new AlertDialog.Builder(this)
+            .setTitle("Status")
+            .setItems(STATUSES, (dialog, which) -> {
+                filter.setStatus(STATUSES[which]);
+                onFilterChanged();
+            })
+            .show();
+    }
+
+    private void showPaymentFilter() {
+        new AlertDialog.Builder(this)
+            .setTitle("Payment Method")
+            .setItems(PAYMENT_METHODS, (dialog, which) -> {
+                filter.setPaymentMethod(PAYMENT_METHODS[which]);
+                onFilterChanged();
+            })
+            .show();
+    }
+
+    private String cashierName(long userId) {
+        if (cashiers != null) {
+            for (User user : cashiers) {
+                if (user.getId() == userId) {
+                    return user.getFullName();
+                }
+            }
         }
+        return "Cashier";
     }
 
     @Override
-    public void onSaleClick(Sale sale) {
+    public void onSaleClick(SaleSummary sale) {
         android.content.Intent intent = new android.content.Intent(this, SaleDetailsActivity.class);
         intent.putExtra("sale_id", sale.getId());
         startActivity(intent);
@@ -12,6 +12,7 @@ import androidx.cardview.widget.CardView;
 import com.sachintha.posapp.POSApplication;
 import com.sachintha.posapp.R;
 import com.sachintha.posapp.database.POSDatabase;
+import com.sachintha.posapp.scanner.ScanProfile;
 import com.sachintha.posapp.utils.SessionManager;
 
 /**
@@ -21,8 +22,8 @@ import com.sachintha.posapp.utils.SessionManager;
 public class SettingsActivity extends AppCompatActivity {
 
     private ImageButton btnBack;
-    private CardView cardManageUsers, cardManageCategories, cardBackup, cardResetData, cardAbout;
-    private TextView tvVersion, tvUserInfo;
+    private CardView cardManageUsers, cardManageCategories, cardBackup, cardScanProfile, cardResetData, cardAbout;
+    private TextView tvVersion, tvUserInfo, tvScanProfile;
 
     private POSDatabase database;
     private SessionManager sessionManager;
@@ -44,13 +45,16 @@ public class SettingsActivity extends AppCompatActivity {
         cardManageUsers = findViewById(R.id.card_manage_users);
         cardManageCategories = findViewById(R.id.card_manage_categories);
         cardBackup = findViewById(R.id.card_backup);
+        cardScanProfile = findViewById(R.id.card_scan_profile);
         cardResetData = findViewById(R.id.card_reset_data);
         cardAbout = findViewById(R.id.card_about);
         tvVersion = findViewById(R.id.tv_version);
         tvUserInfo = findViewById(R.id.tv_user_info);
+        tvScanProfile = findViewById(R.id.tv_scan_profile);
 
         tvVersion.setText("Version 1.0.0");
         tvUserInfo.setText("Logged in as: " + sessionManager.getFullName() + " (" + sessionManager.getRole() + ")");
+        tvScanProfile.setText(ScanProfile.forStore(this).getLabel());
     }
 
     private void setupListeners() {
@@ -68,11 +72,34 @@ public class SettingsActivity extends AppCompatActivity {
             Toast.makeText(this, "Backup feature coming soon", Toast.LENGTH_SHORT).show();
         });
 
+        cardScanProfile.setOnClickListener(v -> showScanProfileDialog());
+
         cardResetData.setOnClickListener(v -> showResetDataDialog());
 
         cardAbout.setOnClickListener(v -> showAboutDialog());
     }
 
+    private void showScanProfileDialog() {
+        ScanProfile current = ScanProfile.forStore(this);
+        String[] labels = new String[ScanProfile.ALL.length];
+        int checked = 0;
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = ScanProfile.ALL[i].getLabel();
+            if (ScanProfile.ALL[i] == current) {
+                checked = i;
+            }
+        }
+        new AlertDialog.Builder(this)
+            .setTitle("Barcode Scanner")
+            .setSingleChoiceItems(labels, checked, (dialog, which) -> {
+                ScanProfile.setForStore(this, ScanProfile.ALL[which]);
+                tvScanProfile.setText(labels[which]);
+                dialog.dismiss();
+            })
+            .setNegativeButton("Cancel", null)
+            .show();
+    }
+
     private void showResetDataDialog() {
         new AlertDialog.Builder(this)
             .setTitle("Reset All Data")
@@ -3,8 +3,6 @@ package com.sachintha.posapp.ui;
 import android.annotation.SuppressLint;
 import android.content.Intent;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
 import android.view.animation.Animation;
 import android.view.animation.AnimationUtils;
 import android.widget.ImageView;
@@ -13,17 +11,17 @@ import android.widget.TextView;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.sachintha.posapp.R;
+import com.sachintha.posapp.StartupPipeline;
 import com.sachintha.posapp.utils.SessionManager;
 
 /**
  * Splash Screen Activity
  * Displays app logo and transitions to Login or Main activity
+ * as soon as the database is ready to log in against
  */
 @SuppressLint("CustomSplashScreen")
 public class SplashActivity extends AppCompatActivity {
 
-    private static final int SPLASH_DURATION = 2000; // 2 seconds
-
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -45,8 +43,11 @@ public class SplashActivity extends AppCompatActivity {
         slideUp.setStartOffset(500);
         tagline.startAnimation(slideUp);
 
-        // Navigate after splash duration
-        new Handler(Looper.getMainLooper()).postDelayed(() -> {
+        // Later stages carry on in the background, the next screens don't need them to start
+        StartupPipeline.getInstance().whenReady(StartupPipeline.Stage.SEED, () -> {
+            if (isFinishing() || isDestroyed()) {
+                return;
+            }
             SessionManager session = SessionManager.getInstance(this);
             Intent intent;
             if (session.isLoggedIn()) {
@@ -57,6 +58,6 @@ public class SplashActivity extends AppCompatActivity {
             startActivity(intent);
             finish();
             overridePendingTransition(android.R.anim.fade_in, android.R.anim.fade_out);
-        }, SPLASH_DURATION);
+        });
     }
 }
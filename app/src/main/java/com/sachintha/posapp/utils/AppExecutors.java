@@ -0,0 +1,70 @@
+package com.sachintha.posapp.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared executors for database work
+ * Writes run on a single thread so they are applied in order,
+ * reads run on a small pool and never block the UI thread
+ */
+public class AppExecutors {
+
+    private static final int READER_THREADS = 3;
+
+    private static AppExecutors instance;
+
+    private final ExecutorService writeExecutor;
+    private final ExecutorService readExecutor;
+    private final Executor mainThreadExecutor;
+
+    private AppExecutors() {
+        writeExecutor = Executors.newSingleThreadExecutor(namedThreads("pos-db-writer"));
+        readExecutor = Executors.newFixedThreadPool(READER_THREADS, namedThreads("pos-db-reader"));
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        mainThreadExecutor = mainHandler::post;
+    }
+
+    public static synchronized AppExecutors getInstance() {
+        if (instance == null) {
+            instance = new AppExecutors();
+        }
+        return instance;
+    }
+
+    /**
+     * Single writer thread for inserts, updates and transactions
+     */
+    public ExecutorService writes() {
+        return writeExecutor;
+    }
+
+    /**
+     * Reader pool for queries
+     */
+    public ExecutorService reads() {
+        return readExecutor;
+    }
+
+    /**
+     * Posts to the UI thread
+     */
+    public Executor mainThread() {
+        return mainThreadExecutor;
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        };
+    }
+}
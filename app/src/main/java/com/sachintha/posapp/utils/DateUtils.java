@@ -0,0 +1,64 @@
+package com.sachintha.posapp.utils;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Utility class for local calendar day calculations
+ */
+public class DateUtils {
+
+    /**
+     * Local calendar day of a date as a yyyyMMdd number, e.g. 20240131
+     */
+    public static int toDayKey(Date date) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        return calendar.get(Calendar.YEAR) * 10000
+                + (calendar.get(Calendar.MONTH) + 1) * 100
+                + calendar.get(Calendar.DAY_OF_MONTH);
+    }
+
+    /**
+     * Today's local calendar day as a yyyyMMdd number
+     */
+    public static int todayKey() {
+        return toDayKey(new Date());
+    }
+
+    /**
+     * Midnight at the start of the local day
+     */
+    public static Date startOfDay(Date date) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTime();
+    }
+
+    /**
+     * Midnight at the start of the following local day
+     */
+    public static Date startOfNextDay(Date date) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(startOfDay(date));
+        calendar.add(Calendar.DAY_OF_MONTH, 1);
+        return calendar.getTime();
+    }
+
+    /**
+     * Local midnight of the calendar day a UTC date picker selection falls on
+     */
+    public static Date fromUtcDay(long utcMillis) {
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        utc.setTimeInMillis(utcMillis);
+        Calendar local = Calendar.getInstance();
+        local.clear();
+        local.set(utc.get(Calendar.YEAR), utc.get(Calendar.MONTH), utc.get(Calendar.DAY_OF_MONTH));
+        return local.getTime();
+    }
+}
@@ -0,0 +1,62 @@
+package com.sachintha.posapp.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+/**
+ * Runs the last submitted action once input pauses, e.g. a search as the user types
+ * Call from the UI thread, a pending action is dropped when the owner is destroyed.
+ */
+public class Debouncer implements DefaultLifecycleObserver {
+
+    private final long delayMs;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable runPending = this::runPending;
+
+    private Runnable pending;
+    private boolean destroyed;
+
+    public Debouncer(LifecycleOwner owner, long delayMs) {
+        this.delayMs = delayMs;
+        owner.getLifecycle().addObserver(this);
+    }
+
+    /**
+     * Run the action after the delay, unless another one is submitted first
+     */
+    public void submit(Runnable action) {
+        if (destroyed) {
+            return;
+        }
+        pending = action;
+        mainHandler.removeCallbacks(runPending);
+        mainHandler.postDelayed(runPending, delayMs);
+    }
+
+    /**
+     * Drop the pending action, e.g. when the search box is cleared
+     */
+    public void cancel() {
+        mainHandler.removeCallbacks(runPending);
+        pending = null;
+    }
+
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        cancel();
+        destroyed = true;
+        owner.getLifecycle().removeObserver(this);
+    }
+
+    private void runPending() {
+        Runnable action = pending;
+        pending = null;
+        if (action != null) {
+            action.run();
+        }
+    }
+}
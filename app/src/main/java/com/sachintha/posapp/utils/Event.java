@@ -0,0 +1,38 @@
+package com.sachintha.posapp.utils;
+
+/**
+ * A value published through LiveData that should be acted on once,
+ * e.g. an alert, so it is not shown again when an activity is recreated
+ */
+public class Event<T> {
+
+    private final T content;
+    private boolean handled;
+
+    public Event(T content) {
+        this.content = content;
+    }
+
+    /**
+     * The content the first time it is asked for, null after that
+     * Call from the UI thread
+     */
+    public T getContentIfNotHandled() {
+        if (handled) {
+            return null;
+        }
+        handled = true;
+        return content;
+    }
+
+    /**
+     * Call from the UI thread
+     */
+    public boolean hasBeenHandled() {
+        return handled;
+    }
+
+    public T peekContent() {
+        return content;
+    }
+}
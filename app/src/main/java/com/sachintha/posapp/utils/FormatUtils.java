@@ -10,25 +10,90 @@ import java.util.Locale;
  */
 public class FormatUtils {
 
-    private static final DecimalFormat CURRENCY_FORMAT = new DecimalFormat("#,##0.00");
     private static final DecimalFormat QUANTITY_FORMAT = new DecimalFormat("#,##0");
     private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("dd MMM yyyy", Locale.getDefault());
     private static final SimpleDateFormat TIME_FORMAT = new SimpleDateFormat("hh:mm a", Locale.getDefault());
     private static final SimpleDateFormat DATETIME_FORMAT = new SimpleDateFormat("dd MMM yyyy, hh:mm a", Locale.getDefault());
     private static final SimpleDateFormat INVOICE_DATE_FORMAT = new SimpleDateFormat("yyyyMMddHHmmss", Locale.getDefault());
 
+    private static final String CURRENCY_PREFIX = "Rs. ";
+
+    /**
+     * Buffer size that fits any amount formatted by {@link #formatCurrency(long, char[])}
+     */
+    public static final int AMOUNT_BUFFER_SIZE = 32;
+
+    /**
+     * Format cents as currency, e.g. 125050 becomes "Rs. 1,250.50"
+     */
+    public static String formatCurrency(long cents) {
+        char[] buffer = new char[AMOUNT_BUFFER_SIZE];
+        return new String(buffer, 0, formatCurrency(cents, buffer));
+    }
+
+    /**
+     * Format cents without currency symbol, e.g. "1,250.50"
+     */
+    public static String formatAmount(long cents) {
+        char[] buffer = new char[AMOUNT_BUFFER_SIZE];
+        return new String(buffer, 0, formatAmount(cents, buffer));
+    }
+
+    /**
+     * Format cents as currency into a reusable buffer without allocating
+     * Returns the number of chars written, for TextView.setText(char[], int, int)
+     */
+    public static int formatCurrency(long cents, char[] buffer) {
+        CURRENCY_PREFIX.getChars(0, CURRENCY_PREFIX.length(), buffer, 0);
+        return CURRENCY_PREFIX.length() + writeAmount(cents, buffer, CURRENCY_PREFIX.length(), true);
+    }
+
     /**
-     * Format amount as currency
+     * Format cents without currency symbol into a reusable buffer
      */
-    public static String formatCurrency(double amount) {
-        return "Rs. " + CURRENCY_FORMAT.format(amount);
+    public static int formatAmount(long cents, char[] buffer) {
+        return writeAmount(cents, buffer, 0, true);
     }
 
     /**
-     * Format amount without currency symbol
+     * Format cents as a plain decimal for input fields, e.g. "1250.50"
+     * Reads back with {@link MoneyUtils#parse}
      */
-    public static String formatAmount(double amount) {
-        return CURRENCY_FORMAT.format(amount);
+    public static String formatPlainAmount(long cents) {
+        char[] buffer = new char[AMOUNT_BUFFER_SIZE];
+        return new String(buffer, 0, writeAmount(cents, buffer, 0, false));
+    }
+
+    private static int writeAmount(long cents, char[] buffer, int offset, boolean grouping) {
+        // Work with a negative value so Long.MIN_VALUE does not overflow
+        boolean negative = cents < 0;
+        long value = negative ? cents : -cents;
+
+        // Count the chars needed so the digits can be written right to left
+        long units = value / 100;
+        int unitDigits = 1;
+        for (long v = units / 10; v != 0; v /= 10) {
+            unitDigits++;
+        }
+        int separators = grouping ? (unitDigits - 1) / 3 : 0;
+        int length = (negative ? 1 : 0) + unitDigits + separators + 3;
+
+        int pos = offset + length;
+        long fraction = -(value % 100);
+        buffer[--pos] = (char) ('0' + fraction % 10);
+        buffer[--pos] = (char) ('0' + fraction / 10);
+        buffer[--pos] = '.';
+        for (int written = 0; written < unitDigits; written++) {
+            if (grouping && written > 0 && written % 3 == 0) {
+                buffer[--pos] = ',';
+            }
+            buffer[--pos] = (char) ('0' - units % 10);
+            units /= 10;
+        }
+        if (negative) {
+            buffer[--pos] = '-';
+        }
+        return length;
     }
 
     /**
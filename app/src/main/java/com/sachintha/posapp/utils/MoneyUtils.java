@@ -0,0 +1,78 @@
+package com.sachintha.posapp.utils;
+
+/**
+ * Helpers for money held as long cents (minor currency units)
+ * Amounts stay exact integers, only percentages are rounded
+ */
+public class MoneyUtils {
+
+    // 16 digits of units is at most 10^18 - 1 cents once scaled, under Long.MAX_VALUE (~9.2 * 10^18).
+    // Leading zeros are not counted, they do not change the amount
+    private static final int MAX_DIGITS = 16;
+
+    /**
+     * Parse user input such as "1,250.5" into cents
+     * Grouping commas are ignored, at most two decimals are accepted
+     * Throws NumberFormatException for anything else, like Double.parseDouble
+     */
+    public static long parse(CharSequence text) {
+        if (text == null) {
+            throw new NumberFormatException("null");
+        }
+        int start = 0;
+        int end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) start++;
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) end--;
+
+        boolean negative = start < end && text.charAt(start) == '-';
+        if (negative) {
+            start++;
+        }
+
+        long units = 0;
+        long cents = 0;
+        int digits = 0;
+        int significant = 0;
+        int decimals = -1; // -1 until the decimal point is seen
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (decimals < 0) {
+                    units = units * 10 + (c - '0');
+                    digits++;
+                    if (units != 0 && ++significant > MAX_DIGITS) {
+                        throw new NumberFormatException("Amount too large: " + text);
+                    }
+                } else if (decimals < 2) {
+                    cents = cents * 10 + (c - '0');
+                    decimals++;
+                } else {
+                    throw new NumberFormatException("Too many decimals: " + text);
+                }
+            } else if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c != ',' || decimals >= 0) {
+                throw new NumberFormatException("Invalid amount: " + text);
+            }
+        }
+        if (digits == 0 && decimals <= 0) {
+            throw new NumberFormatException("Invalid amount: " + text);
+        }
+        if (decimals == 1) {
+            cents *= 10;
+        }
+        long amount = units * 100 + cents;
+        return negative ? -amount : amount;
+    }
+
+    /**
+     * Percentage of an amount, rounded half away from zero to the nearest cent
+     * Rounding the size and putting the sign back makes a refund or negative
+     * discount round the same as the matching sale, Math.round alone would not.
+     */
+    public static long percentOf(long amount, double percentage) {
+        double exact = amount * percentage / 100;
+        long rounded = Math.round(Math.abs(exact));
+        return exact < 0 ? -rounded : rounded;
+    }
+}
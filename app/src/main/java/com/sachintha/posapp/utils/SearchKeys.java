@@ -0,0 +1,136 @@
+package com.sachintha.posapp.utils;
+
+import com.sachintha.posapp.database.entity.Product;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Normalized text for product search
+ * Keys are lower case with accents removed and whitespace collapsed,
+ * e.g. "Crème  Brûlée" becomes "creme brulee". Product keys are stored in
+ * the products table, queries are normalized the same way once per search.
+ */
+public class SearchKeys {
+
+    /**
+     * Search key for a product, covering name, barcode and description
+     * Set it whenever a product is inserted or its text changes
+     */
+    public static String forProduct(Product product) {
+        StringBuilder text = new StringBuilder();
+        appendWord(text, product.getName());
+        appendWord(text, product.getBarcode());
+        appendWord(text, product.getDescription());
+        return normalize(text.toString());
+    }
+
+    /**
+     * Case fold, strip accents and collapse whitespace
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder key = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                pendingSpace = key.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                key.append(' ');
+                pendingSpace = false;
+            }
+            key.append(c);
+        }
+        return key.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Split a query into normalized words of letters and digits
+     * Being lower case also keeps words like "or" from being read as FTS operators
+     */
+    public static List<String> tokens(String query) {
+        String key = normalize(query);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= key.length(); i++) {
+            boolean wordChar = i < key.length() && Character.isLetterOrDigit(key.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(key.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Build an FTS prefix query from user input, e.g. "Coca Co" becomes "coca* co*"
+     * Returns null if the input has no searchable characters
+     */
+    public static String toMatchQuery(String query) {
+        StringBuilder match = new StringBuilder();
+        for (String token : tokens(query)) {
+            if (match.length() > 0) {
+                match.append(' ');
+            }
+            match.append(token).append('*');
+        }
+        return match.length() > 0 ? match.toString() : null;
+    }
+
+    /**
+     * Escape LIKE wildcards so the text matches as typed, for use with ESCAPE '\'
+     * e.g. "50%" becomes "50\%" rather than matching every key starting with "50"
+     */
+    public static String escapeLike(String text) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '%' || c == '_' || c == '\\') {
+                if (escaped == null) {
+                    escaped = new StringBuilder(text.length() + 4).append(text, 0, i);
+                }
+                escaped.append('\\');
+            }
+            if (escaped != null) {
+                escaped.append(c);
+            }
+        }
+        return escaped != null ? escaped.toString() : text;
+    }
+
+    /**
+     * True if a word in the key starts with the token, without allocating
+     * Both must already be normalized
+     */
+    public static boolean hasWordStartingWith(String key, String token) {
+        if (key == null) {
+            return false;
+        }
+        // indexOf is an intrinsic, only its hits need the word boundary check
+        for (int i = key.indexOf(token); i >= 0; i = key.indexOf(token, i + 1)) {
+            if (i == 0 || !Character.isLetterOrDigit(key.charAt(i - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void appendWord(StringBuilder text, String word) {
+        if (word != null && !word.isEmpty()) {
+            text.append(word).append(' ');
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.sachintha.posapp.model;
+
+import com.sachintha.posapp.database.entity.Product;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Cart lines and the running totals in cents
+ */
+public class CartTest {
+
+    private Cart cart;
+
+    @Before
+    public void emptyCart() {
+        cart = Cart.getInstance();
+        cart.clear();
+        cart.setTaxPercentage(0);
+    }
+
+    private static Product product(long id, long price, int stock) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(price);
+        product.setStock(stock);
+        return product;
+    }
+
+    @Test
+    public void addProduct_addsALine() {
+        cart.addProduct(product(1, 12550, 10));
+
+        assertEquals(1, cart.getItemCount());
+        assertEquals(1, cart.getTotalQuantity());
+        assertEquals(12550, cart.getSubtotal());
+        assertEquals(12550, cart.getTotal());
+        assertTrue(cart.containsProduct(1));
+    }
+
+    @Test
+    public void addProduct_mergesTheSameProductIntoOneLine() {
+        Product pen = product(1, 12550, 10);
+        cart.addProduct(pen);
+        cart.addProduct(pen);
+        cart.addProduct(pen, 3);
+
+        assertEquals(1, cart.getItemCount());
+        assertEquals(5, cart.getCartItem(1).getQuantity());
+        assertEquals(5, cart.getTotalQuantity());
+        assertEquals(5 * 12550, cart.getSubtotal());
+    }
+
+    @Test
+    public void addProduct_keepsLinesInTheOrderAdded() {
+        cart.addProduct(product(2, 100, 10));
+        cart.addProduct(product(1, 200, 10));
+        cart.addProduct(product(2, 100, 10));
+
+        List<CartItem> items = cart.getItems();
+        assertEquals(2, items.size());
+        assertEquals(2, items.get(0).getProductId());
+        assertEquals(1, items.get(1).getProductId());
+    }
+
+    @Test
+    public void addProduct_capsAtTheStock() {
+        Product pen = product(1, 100, 2);
+        cart.addProduct(pen);
+        cart.addProduct(pen);
+        cart.addProduct(pen);
+        assertEquals(2, cart.getCartItem(1).getQuantity());
+
+        cart.addProduct(product(2, 100, 3), 5);
+        assertEquals(3, cart.getCartItem(2).getQuantity());
+
+        cart.addProduct(product(3, 100, 0));
+        assertFalse(cart.containsProduct(3));
+        assertEquals(5, cart.getTotalQuantity());
+        assertEquals(500, cart.getSubtotal());
+    }
+
+    @Test
+    public void quantityChanges_updateTheTotals() {
+        cart.addProduct(product(1, 250, 10), 2);
+        cart.addProduct(product(2, 1000, 10));
+
+        cart.incrementQuantity(1);
+        assertEquals(3 * 250 + 1000, cart.getSubtotal());
+
+        cart.updateQuantity(2, 4);
+        assertEquals(3 * 250 + 4 * 1000, cart.getSubtotal());
+        assertEquals(7, cart.getTotalQuantity());
+
+        cart.updateQuantity(2, 20);
+        assertEquals(10, cart.getCartItem(2).getQuantity());
+
+        cart.decrementQuantity(1);
+        assertEquals(2 * 250 + 10 * 1000, cart.getSubtotal());
+    }
+
+    @Test
+    public void removeProduct_dropsTheLineAndItsTotals() {
+        cart.addProduct(product(1, 250, 10), 2);
+        cart.addProduct(product(2, 1000, 10));
+
+        cart.removeProduct(1);
+        assertFalse(cart.containsProduct(1));
+        assertEquals(1000, cart.getSubtotal());
+        assertEquals(1, cart.getTotalQuantity());
+
+        cart.removeProduct(1);
+        assertEquals(1000, cart.getSubtotal());
+    }
+
+    @Test
+    public void decrementOrZeroQuantity_removesTheLine() {
+        cart.addProduct(product(1, 250, 10));
+        cart.addProduct(product(2, 1000, 10), 3);
+
+        cart.decrementQuantity(1);
+        cart.updateQuantity(2, 0);
+
+        assertTrue(cart.isEmpty());
+        assertEquals(0, cart.getSubtotal());
+        assertEquals(0, cart.getTotalQuantity());
+        assertEquals(0, cart.getTotal());
+    }
+
+    @Test
+    public void totals_discountThenTaxRoundedToTheCent() {
+        cart.addProduct(product(1, 333, 10), 3); // 9.99
+        cart.setDiscountPercentage(10);           // 0.999 rounds to 1.00
+        cart.setTaxPercentage(8);                 // 8% of 8.99 is 0.7192, rounds to 0.72
+
+        assertEquals(999, cart.getSubtotal());
+        assertEquals(100, cart.getDiscountAmount());
+        assertEquals(72, cart.getTaxAmount());
+        assertEquals(999 - 100 + 72, cart.getTotal());
+
+        // Percentages apply to later changes too
+        cart.incrementQuantity(1);
+        assertEquals(1332, cart.getSubtotal());
+        assertEquals(133, cart.getDiscountAmount());
+        assertEquals(96, cart.getTaxAmount());
+        assertEquals(1332 - 133 + 96, cart.getTotal());
+    }
+
+    @Test
+    public void getItems_isASnapshot() {
+        cart.addProduct(product(1, 250, 10));
+        List<CartItem> before = cart.getItems();
+
+        cart.incrementQuantity(1);
+
+        assertEquals(1, before.get(0).getQuantity());
+        assertEquals(2, cart.getItems().get(0).getQuantity());
+    }
+
+    @Test
+    public void clear_emptiesTheCartAndResetsTheDiscount() {
+        cart.addProduct(product(1, 250, 10));
+        cart.setDiscountPercentage(5);
+
+        cart.clear();
+
+        assertTrue(cart.isEmpty());
+        assertEquals(0, cart.getDiscountPercentage(), 0);
+        assertEquals(0, cart.getTotal());
+    }
+}
@@ -0,0 +1,154 @@
+package com.sachintha.posapp.repository;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * The barcode index against a plain map
+ */
+public class BarcodeIndexTest {
+
+    @Test
+    public void put_thenGetNumericAndOtherCodes() {
+        BarcodeIndex<String> index = new BarcodeIndex<>();
+        index.put("4006381333931", "pen");
+        index.put("ABC-123", "label");
+
+        assertEquals("pen", index.get("4006381333931"));
+        assertEquals("pen", index.get(new StringBuilder("4006381333931")));
+        assertEquals("label", index.get("ABC-123"));
+        assertNull(index.get("4006381333932"));
+        assertNull(index.get("abc-123"));
+        assertNull(index.get(null));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void put_replacesTheValueOfAnExistingCode() {
+        BarcodeIndex<String> index = new BarcodeIndex<>();
+        index.put("12345670", "old");
+        index.put("12345670", "new");
+
+        assertEquals("new", index.get("12345670"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void pack_keepsLeadingZerosApart() {
+        assertNotEquals(BarcodeIndex.pack("0123"), BarcodeIndex.pack("123"));
+
+        BarcodeIndex<String> index = new BarcodeIndex<>();
+        index.put("0123", "padded");
+        index.put("123", "short");
+        assertEquals("padded", index.get("0123"));
+        assertEquals("short", index.get("123"));
+    }
+
+    @Test
+    public void pack_leavesLongAndNonNumericCodesToTheMap() {
+        assertEquals(0, BarcodeIndex.pack(""));
+        assertEquals(0, BarcodeIndex.pack("12a4"));
+        assertEquals(0, BarcodeIndex.pack("123456789012345678"));
+        assertNotEquals(0, BarcodeIndex.pack("99999999999999999"));
+
+        BarcodeIndex<String> index = new BarcodeIndex<>();
+        index.put("123456789012345678", "eighteen digits");
+        assertEquals("eighteen digits", index.get("123456789012345678"));
+    }
+
+    @Test
+    public void remove_onlyWhileMappedToTheValue() {
+        BarcodeIndex<String> index = new BarcodeIndex<>();
+        String pen = "pen";
+        index.put("4006381333931", pen);
+        index.put("CODE39", pen);
+
+        index.remove("4006381333931", "another pen");
+        index.remove("CODE39", "another pen");
+        assertEquals(pen, index.get("4006381333931"));
+        assertEquals(pen, index.get("CODE39"));
+
+        index.remove("4006381333931", pen);
+        index.remove("CODE39", pen);
+        assertNull(index.get("4006381333931"));
+        assertNull(index.get("CODE39"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void resize_keepsEveryEntry() {
+        BarcodeIndex<Integer> index = new BarcodeIndex<>();
+        int count = 10_000; // several doublings from the initial 1024 slots
+        for (int i = 0; i < count; i++) {
+            index.put(ean(i), i);
+        }
+
+        assertEquals(count, index.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(Integer.valueOf(i), index.get(ean(i)));
+        }
+        assertNull(index.get(ean(count)));
+    }
+
+    @Test
+    public void collisions_putAndRemoveMatchAPlainMap() {
+        // Thousands of keys in a table of a few thousand slots make long probe runs,
+        // removing from them has to shift later entries back
+        BarcodeIndex<Integer> index = new BarcodeIndex<>();
+        Map<String, Integer> expected = new HashMap<>();
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            codes.add(ean(i * 7));
+        }
+
+        Random random = new Random(42);
+        for (int step = 0; step < 50_000; step++) {
+            String code = codes.get(random.nextInt(codes.size()));
+            if (random.nextInt(3) == 0) {
+                Integer value = expected.remove(code);
+                if (value != null) {
+                    index.remove(code, value);
+                }
+            } else {
+                Integer value = step;
+                expected.put(code, value);
+                index.put(code, value);
+            }
+        }
+
+        assertEquals(expected.size(), index.size());
+        for (String code : codes) {
+            assertEquals(expected.get(code), index.get(code));
+        }
+    }
+
+    @Test
+    public void clear_removesEverything() {
+        BarcodeIndex<String> index = new BarcodeIndex<>();
+        index.put("4006381333931", "pen");
+        index.put("CODE39", "label");
+        index.clear();
+
+        assertEquals(0, index.size());
+        assertNull(index.get("4006381333931"));
+        assertNull(index.get("CODE39"));
+        index.put("4006381333931", "pen");
+        assertEquals("pen", index.get("4006381333931"));
+    }
+
+    /**
+     * A 13 digit code from a number, sequential like a store's own labels
+     */
+    private static String ean(int n) {
+        return String.format("200%010d", n);
+    }
+}
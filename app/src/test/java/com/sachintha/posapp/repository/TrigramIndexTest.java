@@ -0,0 +1,153 @@
+package com.sachintha.posapp.repository;
+
+import com.sachintha.posapp.database.entity.Product;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Typo tolerant name search
+ */
+public class TrigramIndexTest {
+
+    private static Product product(long id, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        return product;
+    }
+
+    private static TrigramIndex indexOf(String... names) {
+        TrigramIndex index = new TrigramIndex();
+        for (int i = 0; i < names.length; i++) {
+            index.add(product(i + 1, names[i]));
+        }
+        return index;
+    }
+
+    private static List<String> names(List<Product> products) {
+        List<String> names = new ArrayList<>();
+        for (Product product : products) {
+            names.add(product.getName());
+        }
+        return names;
+    }
+
+    @Test
+    public void search_toleratesTypos() {
+        TrigramIndex index = indexOf("Chocolate Bar", "Coca Cola 1.5L", "Bread", "Milk Powder");
+
+        assertEquals(Arrays.asList("Chocolate Bar"), names(index.search("choclate", 10)));
+        assertEquals(Arrays.asList("Chocolate Bar"), names(index.search("chocolat bar", 10)));
+        assertEquals(Arrays.asList("Bread"), names(index.search("bred", 10)));
+        // Short queries allow one edit, a swap counts as two
+        assertTrue(index.search("braed", 10).isEmpty());
+        assertEquals(Arrays.asList("Milk Powder"), names(index.search("Mlk powder", 10)));
+    }
+
+    @Test
+    public void search_matchesWordsRunTogether() {
+        TrigramIndex index = indexOf("Coca Cola 1.5L", "Cola Zero");
+
+        assertEquals(Arrays.asList("Coca Cola 1.5L"), names(index.search("cocacola", 10)));
+    }
+
+    @Test
+    public void search_matchesTheStartOfAName() {
+        TrigramIndex index = indexOf("Chocolate Bar", "Cheese");
+
+        assertEquals(Arrays.asList("Chocolate Bar"), names(index.search("chocol", 10)));
+    }
+
+    @Test
+    public void search_findsNothingFarOff() {
+        TrigramIndex index = indexOf("Chocolate Bar", "Bread");
+
+        assertTrue(index.search("xylophone", 10).isEmpty());
+        assertTrue(index.search("brick", 10).isEmpty());
+    }
+
+    @Test
+    public void search_closerMatchesRankFirst() {
+        TrigramIndex index = indexOf("Milk", "Milo");
+
+        assertEquals(Arrays.asList("Milo", "Milk"), names(index.search("milo", 10)));
+        assertEquals(Arrays.asList("Milk", "Milo"), names(index.search("milk", 10)));
+    }
+
+    @Test
+    public void search_morePopularRanksFirstAmongEquallyClose() {
+        TrigramIndex index = indexOf("Cola Zero", "Cola Light", "Cola Classic");
+        Map<Long, Double> sold = new HashMap<>();
+        sold.put(2L, 5.0);
+        sold.put(3L, 1.0);
+        index.setPopularity(product -> sold.getOrDefault(product.getId(), 0.0));
+
+        assertEquals(Arrays.asList("Cola Light", "Cola Classic", "Cola Zero"), names(index.search("cola", 10)));
+    }
+
+    @Test
+    public void search_stopsAtTheLimit() {
+        TrigramIndex index = indexOf("Cola Zero", "Cola Light", "Cola Classic");
+
+        assertEquals(2, index.search("cola", 2).size());
+        assertTrue(index.search("cola", 0).isEmpty());
+    }
+
+    @Test
+    public void search_ignoresShortQueries() {
+        TrigramIndex index = indexOf("Cola Zero", "Co2 Cartridge");
+
+        assertTrue(index.search("co", 10).isEmpty());
+        assertTrue(index.search("c o", 10).isEmpty());
+        assertTrue(index.search("  ", 10).isEmpty());
+        assertEquals(Arrays.asList("Cola Zero", "Co2 Cartridge"), names(index.search("col", 10)));
+    }
+
+    @Test
+    public void addAndRemove_keepTheIndexCurrent() {
+        TrigramIndex index = indexOf("Chocolate Bar", "Bread");
+
+        index.remove(1);
+        assertTrue(index.search("chocolate", 10).isEmpty());
+
+        // Re-adding a product replaces its old name
+        index.add(product(2, "Brown Bread"));
+        index.add(product(2, "Baguette"));
+        assertTrue(index.search("brown bread", 10).isEmpty());
+        assertEquals(Arrays.asList("Baguette"), names(index.search("baguete", 10)));
+
+        // Freed slots are reused
+        index.add(product(3, "Dark Chocolate"));
+        assertEquals(Arrays.asList("Dark Chocolate"), names(index.search("choclate", 10)));
+    }
+
+    @Test
+    public void rebuild_replacesEverything() {
+        TrigramIndex index = indexOf("Chocolate Bar");
+
+        index.rebuild(Arrays.asList(product(10, "Bread"), product(11, "Butter")));
+
+        assertTrue(index.search("chocolate", 10).isEmpty());
+        assertEquals(Arrays.asList("Butter"), names(index.search("buter", 10)));
+    }
+
+    @Test
+    public void search_growsPastTheInitialSlots() {
+        TrigramIndex index = new TrigramIndex();
+        for (int i = 0; i < 1000; i++) {
+            index.add(product(i, "Item " + i));
+        }
+        index.add(product(5000, "Strawberry Jam"));
+
+        assertEquals(Arrays.asList("Strawberry Jam"), names(index.search("strawbery", 10)));
+    }
+}
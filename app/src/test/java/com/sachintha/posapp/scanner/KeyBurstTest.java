@@ -0,0 +1,142 @@
+package com.sachintha.posapp.scanner;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Telling a scanner's burst of keys from typing
+ */
+public class KeyBurstTest {
+
+    private static final long START = 10_000;
+
+    /**
+     * Add the characters a key every gap ms from the time, returns the time of the last
+     */
+    private static long type(KeyBurst burst, String text, long time, long gap) {
+        long at = time;
+        for (int i = 0; i < text.length(); i++) {
+            if (i > 0) {
+                at += gap;
+            }
+            burst.add(at, text.charAt(i));
+        }
+        return at;
+    }
+
+    @Test
+    public void burst_endedByEnterIsAScan() {
+        KeyBurst burst = new KeyBurst();
+        long last = type(burst, "4006381333931", START, 8);
+
+        assertTrue(burst.endsScan(last + 8));
+        assertEquals("4006381333931", burst.code().toString());
+    }
+
+    @Test
+    public void burst_withShiftKeysKeepsOnlyTheCharacters() {
+        KeyBurst burst = new KeyBurst();
+        burst.add(START, 0); // Shift
+        burst.add(START + 5, 'A');
+        type(burst, "b12", START + 10, 5);
+
+        assertTrue(burst.endsScan(START + 30));
+        assertEquals("Ab12", burst.code().toString());
+    }
+
+    @Test
+    public void burst_tooShortIsNotAScan() {
+        KeyBurst burst = new KeyBurst();
+        long last = type(burst, "123", START, 8);
+
+        assertFalse(burst.endsScan(last + 8));
+    }
+
+    @Test
+    public void burst_enterTooLateIsNotAScan() {
+        KeyBurst burst = new KeyBurst();
+        long last = type(burst, "12345", START, 8);
+
+        assertFalse(burst.endsScan(last + KeyBurst.MAX_KEY_GAP_MS + 1));
+    }
+
+    @Test
+    public void typing_everyKeyComesTooLate() {
+        KeyBurst burst = new KeyBurst();
+        long at = START;
+        for (char c : "milk".toCharArray()) {
+            assertFalse(burst.inTime(at));
+            // The reader hands back what it held before holding the next key
+            burst.clear();
+            burst.add(at, c);
+            at += 120;
+        }
+        assertFalse(burst.endsScan(at));
+    }
+
+    @Test
+    public void typing_fastPairIsStillTooShort() {
+        KeyBurst burst = new KeyBurst();
+        type(burst, "ab", START, 30);
+
+        assertFalse(burst.endsScan(START + 60));
+    }
+
+    @Test
+    public void splitBurst_gapStartsANewBurst() {
+        KeyBurst burst = new KeyBurst();
+        long last = type(burst, "40063", START, 8);
+
+        long resumed = last + KeyBurst.MAX_KEY_GAP_MS + 20;
+        assertFalse(burst.inTime(resumed));
+        burst.clear();
+        last = type(burst, "81333931", resumed, 8);
+
+        assertTrue(burst.endsScan(last + 8));
+        assertEquals("81333931", burst.code().toString());
+    }
+
+    @Test
+    public void splitBurst_gapWithinTheLimitKeepsOneBurst() {
+        KeyBurst burst = new KeyBurst();
+        long last = type(burst, "40063", START, 8);
+
+        long resumed = last + KeyBurst.MAX_KEY_GAP_MS;
+        assertTrue(burst.inTime(resumed));
+        last = type(burst, "81333931", resumed, 8);
+
+        assertTrue(burst.endsScan(last + 8));
+        assertEquals("4006381333931", burst.code().toString());
+    }
+
+    @Test
+    public void holdRemaining_countsFromTheLastKey() {
+        KeyBurst burst = new KeyBurst();
+        assertEquals(0, burst.holdRemaining(START));
+
+        long last = type(burst, "4006", START, 8);
+        // A timer set at the first key fires while the burst is still going
+        assertEquals(last + KeyBurst.HOLD_MS - (START + KeyBurst.HOLD_MS),
+                burst.holdRemaining(START + KeyBurst.HOLD_MS));
+        assertEquals(KeyBurst.HOLD_MS - 40, burst.holdRemaining(last + 40));
+        assertEquals(0, burst.holdRemaining(last + KeyBurst.HOLD_MS));
+        assertEquals(0, burst.holdRemaining(last + 5 * KeyBurst.HOLD_MS));
+
+        burst.clear();
+        assertEquals(0, burst.holdRemaining(last));
+    }
+
+    @Test
+    public void isFull_atMaxLength() {
+        KeyBurst burst = new KeyBurst();
+        for (int i = 0; i < KeyBurst.MAX_LENGTH - 1; i++) {
+            burst.add(START + i, '0');
+        }
+        assertFalse(burst.isFull());
+        burst.add(START + KeyBurst.MAX_LENGTH, '0');
+        assertTrue(burst.isFull());
+    }
+}
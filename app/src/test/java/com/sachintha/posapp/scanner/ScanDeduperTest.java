@@ -0,0 +1,88 @@
+package com.sachintha.posapp.scanner;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Dropping repeat camera reads of a code, on a test clock
+ */
+public class ScanDeduperTest {
+
+    private static final long WINDOW_MS = 1500; // as the embedded scanner uses
+    private static final String CODE = "4006381333931";
+
+    private ScanDeduper deduper;
+    private long now;
+
+    @Before
+    public void newDeduper() {
+        deduper = new ScanDeduper(WINDOW_MS);
+        now = 100_000;
+    }
+
+    private boolean readAfter(long elapsedMs, String code) {
+        now += elapsedMs;
+        return deduper.accept(code, now);
+    }
+
+    @Test
+    public void firstRead_isAccepted() {
+        assertTrue(readAfter(0, CODE));
+    }
+
+    @Test
+    public void repeatInsideTheWindow_isDropped() {
+        assertTrue(readAfter(0, CODE));
+        assertFalse(readAfter(1, CODE));
+        assertFalse(readAfter(WINDOW_MS - 2, CODE));
+    }
+
+    @Test
+    public void repeatJustAfterTheWindow_isAccepted() {
+        assertTrue(readAfter(0, CODE));
+        assertTrue(readAfter(WINDOW_MS, CODE));
+
+        assertFalse(readAfter(WINDOW_MS - 1, CODE));
+    }
+
+    @Test
+    public void continuousReads_extendTheWindow() {
+        // An item held under the camera is read on every frame, ~30 fps
+        assertTrue(readAfter(0, CODE));
+        for (int frame = 0; frame < 150; frame++) {
+            assertFalse(readAfter(33, CODE));
+        }
+        // Each read restarts the window, so it only counts again after a pause
+        assertFalse(readAfter(WINDOW_MS - 1, CODE));
+        assertTrue(readAfter(WINDOW_MS, CODE));
+    }
+
+    @Test
+    public void otherCodes_haveTheirOwnWindow() {
+        assertTrue(readAfter(0, CODE));
+        assertTrue(readAfter(10, "12345670"));
+        assertFalse(readAfter(10, CODE));
+        assertFalse(readAfter(10, "12345670"));
+    }
+
+    @Test
+    public void pruningOldCodes_keepsRecentOnes() {
+        assertTrue(readAfter(0, CODE));
+        // Enough other codes to trigger pruning, which only drops codes out of view for the window
+        for (int i = 0; i < 100; i++) {
+            assertTrue(readAfter(1, "2000000" + i));
+        }
+        assertFalse(readAfter(1, CODE));
+        assertFalse(readAfter(1, "20000000"));
+    }
+
+    @Test
+    public void clear_forgetsEveryCode() {
+        assertTrue(readAfter(0, CODE));
+        deduper.clear();
+        assertTrue(readAfter(1, CODE));
+    }
+}
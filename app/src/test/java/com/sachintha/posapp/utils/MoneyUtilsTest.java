@@ -0,0 +1,111 @@
+package com.sachintha.posapp.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Parsing and formatting of money held as long cents
+ */
+public class MoneyUtilsTest {
+
+    @Test
+    public void parse_wholeAndDecimalAmounts() {
+        assertEquals(125000, MoneyUtils.parse("1250"));
+        assertEquals(125050, MoneyUtils.parse("1250.50"));
+        assertEquals(125050, MoneyUtils.parse("1250.5"));
+        assertEquals(125000, MoneyUtils.parse("1250."));
+        assertEquals(5, MoneyUtils.parse(".05"));
+        assertEquals(0, MoneyUtils.parse("0"));
+    }
+
+    @Test
+    public void parse_ignoresGroupingAndSurroundingSpace() {
+        assertEquals(125050, MoneyUtils.parse("1,250.50"));
+        assertEquals(100000000, MoneyUtils.parse(" 1,000,000 "));
+    }
+
+    @Test
+    public void parse_negativeAmounts() {
+        assertEquals(-125050, MoneyUtils.parse("-1,250.50"));
+        assertEquals(-5, MoneyUtils.parse("-0.05"));
+    }
+
+    @Test
+    public void parse_rejectsInvalidInput() {
+        assertThrows(NumberFormatException.class, () -> MoneyUtils.parse(null));
+        assertThrows(NumberFormatException.class, () -> MoneyUtils.parse(""));
+        assertThrows(NumberFormatException.class, () -> MoneyUtils.parse("-"));
+        assertThrows(NumberFormatException.class, () -> MoneyUtils.parse("."));
+        assertThrows(NumberFormatException.class, () -> MoneyUtils.parse("12a"));
+        assertThrows(NumberFormatException.class, () -> MoneyUtils.parse("1.2.3"));
+        assertThrows(NumberFormatException.class, () -> MoneyUtils.parse("1.2,3"));
+        assertThrows(NumberFormatException.class, () -> MoneyUtils.parse("1.234"));
+    }
+
+    @Test
+    public void parse_largestAmountFitsInLong() {
+        assertEquals(999999999999999999L, MoneyUtils.parse("9999999999999999.99"));
+        assertEquals(-999999999999999999L, MoneyUtils.parse("-9999999999999999.99"));
+    }
+
+    @Test
+    public void parse_leadingZerosDoNotCountTowardTheLimit() {
+        assertEquals(125050, MoneyUtils.parse("000000000000000001250.50"));
+        assertEquals(999999999999999999L, MoneyUtils.parse("0009999999999999999.99"));
+        assertEquals(0, MoneyUtils.parse("00000000000000000000"));
+        assertEquals(-5, MoneyUtils.parse("-00000000000000000.05"));
+        assertThrows(NumberFormatException.class, () -> MoneyUtils.parse("00099999999999999999"));
+    }
+
+    @Test
+    public void parse_rejectsAmountsThatWouldOverflow() {
+        assertThrows(NumberFormatException.class, () -> MoneyUtils.parse("99999999999999999"));
+        assertThrows(NumberFormatException.class, () -> MoneyUtils.parse("-99999999999999999"));
+        assertThrows(NumberFormatException.class, () -> MoneyUtils.parse("99,999,999,999,999,999.99"));
+    }
+
+    @Test
+    public void percentOf_roundsHalfUpToTheCent() {
+        assertEquals(1250, MoneyUtils.percentOf(12500, 10));
+        assertEquals(13, MoneyUtils.percentOf(125, 10)); // 12.5 cents
+        assertEquals(12, MoneyUtils.percentOf(124, 10)); // 12.4 cents
+        assertEquals(0, MoneyUtils.percentOf(12500, 0));
+    }
+
+    @Test
+    public void percentOf_roundsNegativeHalvesLikePositiveOnes() {
+        assertEquals(-13, MoneyUtils.percentOf(-125, 10)); // -12.5 cents
+        assertEquals(-12, MoneyUtils.percentOf(-124, 10));
+        assertEquals(-13, MoneyUtils.percentOf(125, -10));
+        assertEquals(13, MoneyUtils.percentOf(-125, -10));
+        assertEquals(-1, MoneyUtils.percentOf(-5, 10));    // -0.5 cents
+    }
+
+    @Test
+    public void format_groupsAndPadsCents() {
+        assertEquals("Rs. 1,250.50", FormatUtils.formatCurrency(125050));
+        assertEquals("1,250.50", FormatUtils.formatAmount(125050));
+        assertEquals("0.05", FormatUtils.formatAmount(5));
+        assertEquals("0.00", FormatUtils.formatAmount(0));
+        assertEquals("1,000,000.00", FormatUtils.formatAmount(100000000));
+        assertEquals("999.99", FormatUtils.formatAmount(99999));
+    }
+
+    @Test
+    public void format_negativeAmounts() {
+        assertEquals("-1,250.50", FormatUtils.formatAmount(-125050));
+        assertEquals("-0.05", FormatUtils.formatAmount(-5));
+        assertEquals("-92,233,720,368,547,758.08", FormatUtils.formatAmount(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void formatPlainAmount_readsBackWithParse() {
+        long[] amounts = {0, 5, -5, 125050, -125050, 999999999999999999L};
+        for (long amount : amounts) {
+            assertEquals(amount, MoneyUtils.parse(FormatUtils.formatPlainAmount(amount)));
+        }
+        assertEquals("1250.50", FormatUtils.formatPlainAmount(125050));
+    }
+}
@@ -0,0 +1,61 @@
+package com.sachintha.posapp.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Normalized search text and the queries built from it
+ */
+public class SearchKeysTest {
+
+    @Test
+    public void normalize_foldsCaseAccentsAndWhitespace() {
+        assertEquals("creme brulee", SearchKeys.normalize("  Crème \t Brûlée "));
+        assertEquals("", SearchKeys.normalize(null));
+    }
+
+    @Test
+    public void tokens_splitOnAnythingButLettersAndDigits() {
+        assertEquals(Arrays.asList("coca", "cola", "1", "5l"), SearchKeys.tokens("Coca-Cola 1.5L"));
+        assertEquals(Collections.emptyList(), SearchKeys.tokens("  - "));
+    }
+
+    @Test
+    public void toMatchQuery_prefixesEveryWord() {
+        assertEquals("coca* co*", SearchKeys.toMatchQuery("Coca Co"));
+        assertEquals("tea* or*", SearchKeys.toMatchQuery("tea OR"));
+        assertNull(SearchKeys.toMatchQuery("%%"));
+    }
+
+    @Test
+    public void escapeLike_escapesWildcardsAndTheEscape() {
+        assertEquals("50\\%", SearchKeys.escapeLike("50%"));
+        assertEquals("a\\_b", SearchKeys.escapeLike("a_b"));
+        assertEquals("c:\\\\d", SearchKeys.escapeLike("c:\\d"));
+        assertEquals("\\%\\_\\\\", SearchKeys.escapeLike("%_\\"));
+    }
+
+    @Test
+    public void escapeLike_returnsPlainTextAsIs() {
+        String text = "coca cola";
+        assertSame(text, SearchKeys.escapeLike(text));
+        assertEquals("", SearchKeys.escapeLike(""));
+    }
+
+    @Test
+    public void hasWordStartingWith_onlyAtWordStarts() {
+        assertTrue(SearchKeys.hasWordStartingWith("coca cola 1.5l", "col"));
+        assertTrue(SearchKeys.hasWordStartingWith("coca cola 1.5l", "coca"));
+        assertTrue(SearchKeys.hasWordStartingWith("coca-cola", "cola"));
+        assertFalse(SearchKeys.hasWordStartingWith("chocolate", "cola"));
+        assertFalse(SearchKeys.hasWordStartingWith(null, "cola"));
+    }
+}